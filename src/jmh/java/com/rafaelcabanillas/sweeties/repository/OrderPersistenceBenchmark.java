@@ -0,0 +1,138 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import com.rafaelcabanillas.sweeties.model.Order;
+import com.rafaelcabanillas.sweeties.model.OrderItem;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.*;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Order write throughput: the previous mapping (IDENTITY ids, no JDBC batching, one
+ * INSERT per line) against the pooled-sequence, batched mapping on {@link Order}.
+ * In-memory H2 has no network, so {@code rttMicros} adds a simulated round trip to
+ * every statement or batch the driver sends; that is where the gap shows up.
+ * Hibernate needs a long warmup before the numbers settle.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderPersistenceBenchmark {
+
+    /** The Order mapping before pooled ids: IDENTITY disables insert batching. */
+    @Entity
+    @Table(name = "legacy_orders")
+    public static class LegacyOrder {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+        String name;
+        String email;
+        String phone;
+        Double total;
+        @ElementCollection
+        @CollectionTable(name = "legacy_order_items", joinColumns = @JoinColumn(name = "order_id"))
+        List<OrderItem> items = new ArrayList<>();
+    }
+
+    @Param({"1", "20"})
+    public int lines;
+
+    @Param({"0", "200"})
+    public long rttMicros;
+
+    private HikariDataSource pool;
+    private SessionFactory legacy;
+    private SessionFactory batched;
+
+    @Setup
+    public void setUp() {
+        HikariDataSource h2 = new HikariDataSource();
+        h2.setJdbcUrl("jdbc:h2:mem:bench-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        h2.setUsername("sa");
+        pool = h2;
+        long rttNanos = TimeUnit.MICROSECONDS.toNanos(rttMicros);
+        DataSource dataSource = ProxyDataSourceBuilder.create(h2)
+                .listener(new QueryExecutionListener() {
+                    @Override
+                    public void beforeQuery(ExecutionInfo info, List<QueryInfo> queries) {
+                        if (rttNanos > 0) LockSupport.parkNanos(rttNanos);
+                    }
+
+                    @Override
+                    public void afterQuery(ExecutionInfo info, List<QueryInfo> queries) {
+                    }
+                })
+                .build();
+
+        legacy = sessionFactory(dataSource, LegacyOrder.class, 0);
+        batched = sessionFactory(dataSource, Order.class, 50);
+    }
+
+    @TearDown
+    public void tearDown() {
+        legacy.close();
+        batched.close();
+        pool.close();
+    }
+
+    @Benchmark
+    public Long identityUnbatched() {
+        LegacyOrder order = new LegacyOrder();
+        order.name = "Cliente";
+        order.email = "cliente@example.com";
+        order.phone = "55";
+        order.total = 10.0 * lines;
+        order.items = items();
+        legacy.inTransaction(session -> session.persist(order));
+        return order.id;
+    }
+
+    @Benchmark
+    public Long pooledSequenceBatched() {
+        Order order = Order.builder()
+                .name("Cliente")
+                .email("cliente@example.com")
+                .phone("55")
+                .total(10.0 * lines)
+                .items(items())
+                .build();
+        batched.inTransaction(session -> session.persist(order));
+        return order.getId();
+    }
+
+    private List<OrderItem> items() {
+        List<OrderItem> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(OrderItem.builder().productId("P" + i).name("Producto " + i).price(10.0).quantity(1).build());
+        }
+        return items;
+    }
+
+    private static SessionFactory sessionFactory(DataSource dataSource, Class<?> entity, int batchSize) {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(entity)
+                .addAnnotatedClass(OrderItem.class);
+        configuration.getProperties().put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource);
+        configuration.setProperty(AvailableSettings.HBM2DDL_AUTO, "update");
+        configuration.setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(batchSize));
+        configuration.setProperty(AvailableSettings.ORDER_INSERTS, String.valueOf(batchSize > 0));
+        return configuration.buildSessionFactory();
+    }
+}
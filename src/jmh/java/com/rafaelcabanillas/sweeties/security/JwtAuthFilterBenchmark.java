@@ -0,0 +1,64 @@
+package com.rafaelcabanillas.sweeties.security;
+
+import com.rafaelcabanillas.sweeties.model.User;
+import com.rafaelcabanillas.sweeties.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bearer-token handling on an authenticated admin request: the whole filter with the
+ * token already verified (the steady state), and the parse plus signature check a token
+ * pays on its first request after login.
+ * Run with {@code -prof gc} for allocation per request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthFilterBenchmark {
+
+    private JwtAuthFilter filter;
+    private JwtParser parser;
+    private String token;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        User admin = User.builder().id(1L).username("admin").role(User.Role.ADMIN).build();
+        token = new JwtUtil().generateToken(admin);
+
+        filter = new JwtAuthFilter(new JwtAuthenticationCache(new JwtUtil(), new SimpleMeterRegistry(), 10_000));
+        parser = Jwts.parserBuilder().setSigningKey(new JwtUtil().signingKey()).build();
+
+        request = new MockHttpServletRequest("GET", "/api/orders");
+        request.setServletPath("/api/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object cachedToken() throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Claims parseAndVerify() {
+        return parser.parseClaimsJws(token).getBody();
+    }
+}
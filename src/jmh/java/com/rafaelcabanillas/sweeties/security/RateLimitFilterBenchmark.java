@@ -0,0 +1,107 @@
+package com.rafaelcabanillas.sweeties.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the rate-limit check with 8 threads hammering it: one shared client (every
+ * thread CASes the same bucket), many clients, the whole filter, and a synchronized
+ * token bucket for comparison. Budgets are huge so every request is allowed and the
+ * numbers are pure bookkeeping overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimitFilterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+    private static final int UNLIMITED = 1_000_000_000;
+
+    private TokenBucketLimiter limiter;
+    private RateLimitFilter filter;
+    private SynchronizedBucket synchronizedBucket;
+    private String[] ips;
+
+    @State(Scope.Thread)
+    public static class Request {
+        MockHttpServletRequest request;
+        MockHttpServletResponse response;
+
+        @Setup
+        public void setUp() {
+            request = new MockHttpServletRequest("POST", "/api/orders");
+            request.setServletPath("/api/orders");
+            request.setRemoteAddr("10.0.0." + ThreadLocalRandom.current().nextInt(256));
+            response = new MockHttpServletResponse();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        limiter = new TokenBucketLimiter(UNLIMITED, Duration.ofSeconds(1), CLIENTS * 2, Duration.ofMinutes(10));
+        filter = new RateLimitFilter(new RateLimitProperties(true, CLIENTS * 2, Duration.ofMinutes(10), Map.of(
+                "checkout", new RateLimitProperties.Route("POST", "/api/orders", UNLIMITED, Duration.ofSeconds(1)))),
+                new SimpleMeterRegistry());
+        synchronizedBucket = new SynchronizedBucket(UNLIMITED, Duration.ofSeconds(1));
+        ips = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            ips[i] = "10." + (i >> 16) + "." + ((i >> 8) & 255) + "." + (i & 255);
+        }
+    }
+
+    @Benchmark
+    public long sameClient() {
+        return limiter.tryAcquire("203.0.113.7");
+    }
+
+    @Benchmark
+    public long manyClients() {
+        return limiter.tryAcquire(ips[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    @Benchmark
+    public boolean synchronizedSameClient() {
+        return synchronizedBucket.tryAcquire();
+    }
+
+    @Benchmark
+    public int wholeFilter(Request r) throws Exception {
+        filter.doFilter(r.request, r.response, new MockFilterChain());
+        return r.response.getStatus();
+    }
+
+    /** The textbook bucket: refill on read, guarded by the bucket's monitor. */
+    static final class SynchronizedBucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long last = System.nanoTime();
+
+        SynchronizedBucket(int capacity, Duration period) {
+            this.capacity = capacity;
+            this.tokensPerNano = capacity / (double) period.toNanos();
+            this.tokens = capacity;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - last) * tokensPerNano);
+            last = now;
+            if (tokens < 1) return false;
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.dto.OrderExportRow;
+import com.rafaelcabanillas.sweeties.model.Order;
+import com.rafaelcabanillas.sweeties.util.CsvWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV encoding of the order export, one 500-row chunk (a single cursor fetch) per
+ * invocation, written to a writer that only counts characters so the score is encoding
+ * cost alone. Scores are per row. Run with {@code -prof gc} for allocation per row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvExportBenchmark {
+
+    private static final int CHUNK = 500;
+
+    private List<OrderExportRow> rows;
+
+    @Setup
+    public void setUp() {
+        OffsetDateTime created = OffsetDateTime.parse("2025-03-01T10:15:30-06:00");
+        Order.OrderStatus[] statuses = Order.OrderStatus.values();
+        rows = new ArrayList<>(CHUNK);
+        for (int i = 0; i < CHUNK; i++) {
+            // Every tenth customer has a comma in the name, which forces quoting
+            String name = i % 10 == 0 ? "López, María " + i : "María Fernanda " + i;
+            rows.add(new OrderExportRow((long) i, name, "cliente" + i + "@example.com", "+52 55 1234 " + (1000 + i),
+                    199.9 + i, statuses[i % statuses.length], created.plusMinutes(i), created.plusHours(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public long exportRows() throws IOException {
+        CountingWriter out = new CountingWriter();
+        CsvWriter csv = new CsvWriter(out);
+        OrderServiceImpl.writeExportHeader(csv);
+        for (OrderExportRow row : rows) {
+            OrderServiceImpl.writeExportRow(csv, row);
+        }
+        csv.flush();
+        return out.chars;
+    }
+
+    /** Stands in for the servlet writer. */
+    static final class CountingWriter extends Writer {
+        long chars;
+
+        @Override
+        public void write(int c) {
+            chars++;
+        }
+
+        @Override
+        public void write(String str) {
+            chars += str.length();
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            chars += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
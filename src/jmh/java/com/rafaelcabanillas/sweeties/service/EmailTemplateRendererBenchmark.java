@@ -0,0 +1,89 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.dto.OrderDTO;
+import com.rafaelcabanillas.sweeties.dto.OrderItemDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.StaticApplicationContext;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render throughput and allocation per order email (run with {@code -prof gc}).
+ * The engine is configured like Spring Boot's auto-configured one: classpath
+ * templates/ prefix, HTML mode, template cache on.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailTemplateRendererBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int lines;
+
+    private SpringTemplateEngine engine;
+    private EmailTemplateRenderer renderer;
+    private OrderDTO order;
+
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+
+        renderer = new EmailTemplateRenderer(engine, new StaticApplicationContext());
+        renderer.warmUp();
+
+        List<OrderItemDTO> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(OrderItemDTO.builder()
+                    .productId(String.valueOf(100 + i))
+                    .name("Amigurumi conejito edición " + i)
+                    .price(249.5 + i)
+                    .quantity(1 + i % 3)
+                    .build());
+        }
+        order = OrderDTO.builder()
+                .id(12345L)
+                .name("María Fernanda López")
+                .email("maria.lopez@example.com")
+                .phone("+52 55 1234 5678")
+                .note("Por favor envolver para regalo")
+                .items(items)
+                .total(items.stream().mapToDouble(i -> i.getPrice() * i.getQuantity()).sum())
+                .status("PENDIENTE")
+                .build();
+    }
+
+    /** Previous path: two independent process() calls, each with its own context. */
+    @Benchmark
+    public String[] separateRenders() {
+        Context guest = new Context();
+        guest.setVariable("order", order);
+        Context admin = new Context();
+        admin.setVariable("order", order);
+        return new String[]{
+                engine.process(EmailTemplateRenderer.ORDER_GUEST, guest),
+                engine.process(EmailTemplateRenderer.ORDER_ADMIN, admin)
+        };
+    }
+
+    @Benchmark
+    public EmailTemplateRenderer.OrderEmails batchedRender() {
+        return renderer.renderOrderEmails(order);
+    }
+}
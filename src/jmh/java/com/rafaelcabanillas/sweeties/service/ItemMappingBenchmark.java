@@ -0,0 +1,64 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.dto.ItemDTO;
+import com.rafaelcabanillas.sweeties.model.Item;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping for one catalog item, with collections sized like the real
+ * catalog's: a few materials and sizes, and 0, 4 or 12 sprites with their public ids.
+ * Run with {@code -prof gc} for allocation per item.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemMappingBenchmark {
+
+    @Param({"0", "4", "12"})
+    public int sprites;
+
+    private ItemServiceImpl service;
+    private Item item;
+
+    @Setup
+    public void setUp() {
+        // toItemDTO touches none of the collaborators
+        service = new ItemServiceImpl(null, null, null, null);
+
+        List<String> spriteUrls = new ArrayList<>(sprites);
+        List<String> spriteIds = new ArrayList<>(sprites);
+        for (int i = 0; i < sprites; i++) {
+            String id = "items/sprite_conejito_" + i + "_1712345678901_a1b2c3d4";
+            spriteIds.add(id);
+            spriteUrls.add("https://res.cloudinary.com/sweeties/image/upload/v1712345678/" + id + ".png");
+        }
+        item = Item.builder()
+                .id(42L)
+                .name("Conejito de estambre")
+                .description("Amigurumi tejido a mano con estambre de algodón, relleno hipoalergénico. ".repeat(4))
+                .price(349.0)
+                .imageUrl("https://res.cloudinary.com/sweeties/image/upload/v1712345678/items/item_conejito_1712345678901.png")
+                .imagePublicId("items/item_conejito_1712345678901")
+                .materials(new ArrayList<>(List.of("Algodón", "Fibra hueca", "Ojos de seguridad", "Fieltro")))
+                .size(new ArrayList<>(List.of(
+                        Item.Size.builder().alto(15.0).ancho(8.0).build(),
+                        Item.Size.builder().alto(25.0).ancho(12.0).build())))
+                .sprites(spriteUrls)
+                .spritesPublicIds(spriteIds)
+                .isFeatured(true)
+                .isVisible(true)
+                .build();
+    }
+
+    @Benchmark
+    public ItemDTO toItemDTO() {
+        return service.toItemDTO(item);
+    }
+}
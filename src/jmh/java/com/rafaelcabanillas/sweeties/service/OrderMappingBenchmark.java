@@ -0,0 +1,63 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.dto.OrderDTO;
+import com.rafaelcabanillas.sweeties.model.Order;
+import com.rafaelcabanillas.sweeties.model.OrderItem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping for orders of 1, 5 and 20 lines, as done for every order in the
+ * admin list and after each checkout. Run with {@code -prof gc} for allocation per order.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderMappingBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int lines;
+
+    private OrderServiceImpl service;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        // toOrderDTO touches none of the collaborators
+        service = new OrderServiceImpl(null, null, null, null, null);
+
+        List<OrderItem> items = new ArrayList<>(lines);
+        double total = 0;
+        for (int i = 0; i < lines; i++) {
+            OrderItem item = OrderItem.builder()
+                    .productId(String.valueOf(100 + i))
+                    .name("Amigurumi conejito edición " + i)
+                    .price(249.5 + i)
+                    .quantity(1 + i % 3)
+                    .build();
+            items.add(item);
+            total += item.getPrice() * item.getQuantity();
+        }
+        order = Order.builder()
+                .id(12345L)
+                .name("María Fernanda López")
+                .email("maria.lopez@example.com")
+                .phone("+52 55 1234 5678")
+                .note("Por favor envolver para regalo")
+                .items(items)
+                .total(total)
+                .status(Order.OrderStatus.ENVIADO)
+                .build();
+    }
+
+    @Benchmark
+    public OrderDTO toOrderDTO() {
+        return service.toOrderDTO(order);
+    }
+}
@@ -0,0 +1,56 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The string work around every upload and delete: public-id extraction from delivery
+ * URLs (with and without version segment and query string) and slugging item names into
+ * public ids. No request leaves the JVM. Run with {@code -prof gc} for allocation per call.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CloudinaryIdsBenchmark {
+
+    private static final String[] URLS = {
+            "https://res.cloudinary.com/sweeties/image/upload/v1712345678/items/item_conejito_1712345678901.png",
+            "https://res.cloudinary.com/sweeties/image/upload/items/sprites/sprite_conejito_3_1712345678901_a1b2c3d4.webp",
+            "https://res.cloudinary.com/sweeties/image/upload/v1712345678/items/item_osito_de_peluche_1712345678901.jpg?_a=BAMAGSa40",
+    };
+    private static final String[] NAMES = {
+            "Conejito de estambre",
+            "  Osito Panda (edición especial) 25cm ",
+            "Llavero mini-pulpo / colores surtidos",
+    };
+
+    private CloudinaryService service;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        service = new CloudinaryService(new SimpleMeterRegistry(), "sweeties", "key", "secret",
+                "", 4, 8, Duration.ofSeconds(10), false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.destroy();
+    }
+
+    @Benchmark
+    public String extractPublicIdFromUrl() {
+        return service.extractPublicIdFromUrl(URLS[next++ % URLS.length]);
+    }
+
+    @Benchmark
+    public String safeSlug() {
+        return service.safeSlug(NAMES[next++ % NAMES.length]);
+    }
+}
@@ -0,0 +1,38 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import com.rafaelcabanillas.sweeties.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access-token issuing, paid on every login and refresh. Run with {@code -prof gc} for
+ * allocation per token.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        user = User.builder()
+                .id(7L)
+                .username("maria.lopez")
+                .email("maria.lopez@example.com")
+                .role(User.Role.EDITOR)
+                .build();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+}
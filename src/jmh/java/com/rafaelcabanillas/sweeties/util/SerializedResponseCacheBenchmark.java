@@ -0,0 +1,84 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafaelcabanillas.sweeties.dto.ItemDTO;
+import com.rafaelcabanillas.sweeties.dto.SizeDTO;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions.Resource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request CPU and allocation for GET /api/items (run with {@code -prof gc}):
+ * Jackson on every request, Jackson plus gzip on every request (what response
+ * compression in Tomcat or a proxy adds), and the pre-serialized cache serving gzip.
+ * The cached path includes building the request wrapper and conditional-GET check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializedResponseCacheBenchmark {
+
+    @Param({"60"})
+    public int items;
+
+    private ObjectMapper objectMapper;
+    private SerializedResponseCache cache;
+    private List<ItemDTO> catalog;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        cache = new SerializedResponseCache(new ResourceVersions(), objectMapper, new SimpleMeterRegistry());
+        catalog = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            List<String> sprites = new ArrayList<>();
+            List<String> spriteIds = new ArrayList<>();
+            for (int s = 0; s < 4; s++) {
+                spriteIds.add("sweeties-crochet/items/sprite_amigurumi-" + i + "_" + s + "_a8f3k2");
+                sprites.add("https://res.cloudinary.com/sweeties/image/upload/v1718000000/" + spriteIds.get(s) + ".webp");
+            }
+            catalog.add(ItemDTO.builder()
+                    .id((long) i)
+                    .name("Amigurumi conejito edición " + i)
+                    .description("Tejido a mano con algodón peinado, relleno hipoalergénico y ojos de seguridad. Pieza " + i)
+                    .price(249.5 + i)
+                    .imageUrl("https://res.cloudinary.com/sweeties/image/upload/v1718000000/sweeties-crochet/items/item_" + i + ".webp")
+                    .imagePublicId("sweeties-crochet/items/item_" + i)
+                    .materials(List.of("algodón", "relleno", "ojos de seguridad"))
+                    .size(List.of(new SizeDTO(12.0, 8.0), new SizeDTO(20.0, 14.0)))
+                    .sprites(sprites)
+                    .spritesPublicIds(spriteIds)
+                    .isFeatured(i % 5 == 0)
+                    .isVisible(true)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] serializePerRequest() throws Exception {
+        return objectMapper.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public byte[] serializeAndGzipPerRequest() throws Exception {
+        return SerializedResponseCache.gzip(objectMapper.writeValueAsBytes(catalog));
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> cachedGzip() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        request.addHeader("Accept-Encoding", "gzip, deflate, br");
+        return cache.get(new ServletWebRequest(request, new MockHttpServletResponse()), Resource.CATALOG, "items", () -> catalog);
+    }
+}
@@ -0,0 +1,87 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A slow-upload burst next to storefront traffic, in both request-thread modes. 400
+ * admin uploads each hold a Cloudinary permit for 50 ms while 400 catalog requests each
+ * need a database permit for 2 ms; the score is how long the catalog requests take to
+ * finish. With 200 platform workers (Tomcat's default) the uploads waiting on their
+ * bulkhead occupy most of the workers, and the catalog queues behind them; with a
+ * virtual thread per request only the bulkhead queues, and the catalog does not.
+ * Sleeps stand in for network I/O, so the numbers show scheduling, not real latency;
+ * compare the modes end to end with the load test ({@code app.virtual-threads=true|false}).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadModeBenchmark {
+
+    private static final int UPLOADS = 400;
+    private static final int STOREFRONT = 400;
+    private static final int PLATFORM_WORKERS = 200;
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    private ExecutorService workers;
+    private Bulkhead cloudinary;
+    private Bulkhead db;
+    private List<Future<?>> uploads;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workers = mode.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_WORKERS);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cloudinary = new Bulkhead("cloudinary", 8, Duration.ofSeconds(30), registry);
+        db = new Bulkhead("db", 10, Duration.ofSeconds(30), registry);
+    }
+
+    @TearDown(Level.Invocation)
+    public void awaitUploads() throws Exception {
+        for (Future<?> f : uploads) {
+            f.get();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Benchmark
+    public int storefrontDuringUploadBurst() throws Exception {
+        uploads = new ArrayList<>(UPLOADS);
+        for (int i = 0; i < UPLOADS; i++) {
+            uploads.add(workers.submit(() -> cloudinary.call(() -> hold(50))));
+        }
+        List<Future<Integer>> storefront = new ArrayList<>(STOREFRONT);
+        for (int i = 0; i < STOREFRONT; i++) {
+            storefront.add(workers.submit(() -> db.call(() -> hold(2))));
+        }
+        int done = 0;
+        for (Future<Integer> f : storefront) {
+            done += f.get();
+        }
+        return done;
+    }
+
+    private static int hold(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return 1;
+    }
+}
@@ -0,0 +1,76 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The admin orders screen: paging the order list, filtering by status, searching by
+ * customer email and by total range, opening an order, and now and then exporting the
+ * last 30 days as CSV. Each virtual user logs in once and keeps its access token.
+ */
+final class AdminOrdersScenario implements Scenario {
+
+    private final SeedData data;
+
+    AdminOrdersScenario(SeedData data) {
+        this.data = data;
+    }
+
+    @Override
+    public String name() {
+        return "admin";
+    }
+
+    @Override
+    public VirtualUser newUser(HttpDriver http, Random random) {
+        return new VirtualUser() {
+            private String authorization;
+
+            @Override
+            public void iterate() throws Exception {
+                if (authorization == null) {
+                    HttpDriver.Response login = http.postJson("POST /api/auth/login", "/api/auth/login",
+                            Map.of("username", DataSeeder.ADMIN_USERNAME, "password", DataSeeder.PASSWORD));
+                    if (login == null || !login.ok()) return;
+                    authorization = "Bearer " + login.json().path("accessToken").asText();
+                }
+                // Whole days, so every request in a run (and across runs on the same day) asks for the same window
+                String since = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS).minusDays(30).toString();
+
+                check(http.get("GET /api/orders", "/api/orders?page=" + random.nextInt(50) + "&size=20",
+                        "Authorization", authorization));
+                check(http.get("GET /api/orders?status", "/api/orders?status=PENDIENTE&page=0&size=20",
+                        "Authorization", authorization));
+                if (!data.customerEmails().isEmpty()) {
+                    String email = data.customerEmails().get(random.nextInt(data.customerEmails().size()));
+                    check(http.get("GET /api/orders/search?email", "/api/orders/search?email="
+                            + URLEncoder.encode(email, StandardCharsets.UTF_8) + "&page=0&size=10", "Authorization", authorization));
+                }
+                int minTotal = 100 * random.nextInt(20);
+                check(http.get("GET /api/orders/search?status&total&from", "/api/orders/search?status=ENTREGADO&minTotal="
+                        + minTotal + "&maxTotal=" + (minTotal + 1000) + "&from=" + since + "&page=0&size=20",
+                        "Authorization", authorization));
+                if (data.maxOrderId() > 0) {
+                    check(http.get("GET /api/orders/{id}", "/api/orders/" + (1 + random.nextLong(data.maxOrderId())),
+                            "Authorization", authorization));
+                }
+                // The export is the heavy one; admins pull it occasionally, not on every page view
+                if (random.nextInt(10) == 0) {
+                    check(http.get("GET /api/orders/export", "/api/orders/export?from=" + since,
+                            "Authorization", authorization));
+                }
+            }
+
+            private void check(HttpDriver.Response response) {
+                if (response != null && (response.status() == 401 || response.status() == 403)) {
+                    authorization = null; // log in again on the next pass
+                }
+            }
+        };
+    }
+}
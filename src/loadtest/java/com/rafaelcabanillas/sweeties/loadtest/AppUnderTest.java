@@ -0,0 +1,121 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The application launched as a child JVM on the harness's own classpath, pointed at
+ * the load-test database and the local stubs. Its output goes to {@code app.log} in the
+ * report directory; the harness only talks to it over HTTP.
+ */
+final class AppUnderTest implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final Process process;
+    private final URI baseUri;
+
+    private AppUnderTest(Process process, URI baseUri) {
+        this.process = process;
+        this.baseUri = baseUri;
+    }
+
+    static AppUnderTest launch(LoadTestOptions options, ExternalStubs stubs) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(options.appJvmArgs().strip().split("\\s+")));
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"),
+                "com.rafaelcabanillas.sweeties.SweetiesApplication",
+                "--server.port=" + port,
+                // Not dev: application-dev.yml would point the app at the dev database
+                "--spring.profiles.active=loadtest",
+                "--spring.datasource.url=" + options.jdbcUrl(options.database()),
+                "--sendgrid.plain-http=true",
+                "--logging.level.org.springframework.web=INFO",
+                "--logging.level.com.rafaelcabanillas.sweeties=INFO"));
+
+        ProcessBuilder builder = new ProcessBuilder(command);
+        Map<String, String> env = builder.environment();
+        env.put("DB_HOST", options.dbHost());
+        env.put("DB_PORT", Integer.toString(options.dbPort()));
+        env.put("DB_NAME", options.database());
+        env.put("DB_USER", options.dbUser());
+        env.put("DB_PASS", options.dbPassword());
+        env.put("ADMIN_USER", "loadtest");
+        env.put("ADMIN_PASSWORD", DataSeeder.PASSWORD);
+        env.put("ADMIN_ROLES", "ADMIN");
+        env.put("SENDGRID_API_KEY", "loadtest");
+        env.put("SENDGRID_FROM_EMAIL", "tienda@loadtest.example");
+        env.put("SENDGRID_HOST", stubs.sendGridHost());
+        env.put("CLOUDINARY_CLOUD_NAME", ExternalStubs.CLOUD_NAME);
+        env.put("CLOUDINARY_API_KEY", "loadtest");
+        env.put("CLOUDINARY_API_SECRET", "loadtest");
+        env.put("CLOUDINARY_UPLOAD_PREFIX", stubs.cloudinaryPrefix());
+        // Every virtual user comes from 127.0.0.1; the checkout bucket would cap the whole run at 10 orders/min
+        env.put("RATE_LIMIT_ENABLED", "false");
+        env.put("VIRTUAL_THREADS", Boolean.toString(options.virtualThreads()));
+
+        Files.createDirectories(options.out());
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(options.out().resolve("app.log").toFile());
+        AppUnderTest app = new AppUnderTest(builder.start(), URI.create("http://127.0.0.1:" + port));
+        try {
+            app.awaitReady();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            app.close();
+            throw e;
+        }
+        return app;
+    }
+
+    URI baseUri() {
+        return baseUri;
+    }
+
+    private void awaitReady() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest probe = HttpRequest.newBuilder(baseUri.resolve("/api/items/featured"))
+                .timeout(Duration.ofSeconds(10))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("The app exited with " + process.exitValue() + " during startup; see app.log");
+            }
+            try {
+                if (client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) return;
+            } catch (IOException notYet) {
+                // not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("The app was not up after " + STARTUP_TIMEOUT + "; see app.log");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Login/refresh churn: a shopper logs in (a BCrypt check), rotates the refresh token
+ * three times as a long session would, then logs out.
+ */
+final class AuthChurnScenario implements Scenario {
+
+    private static final int REFRESHES = 3;
+
+    private final SeedData data;
+
+    AuthChurnScenario(SeedData data) {
+        this.data = data;
+    }
+
+    @Override
+    public String name() {
+        return "auth";
+    }
+
+    @Override
+    public VirtualUser newUser(HttpDriver http, Random random) {
+        return () -> {
+            String username = data.shoppers().get(random.nextInt(data.shoppers().size()));
+            HttpDriver.Response login = http.postJson("POST /api/auth/login", "/api/auth/login",
+                    Map.of("username", username, "password", DataSeeder.PASSWORD));
+            if (login == null || !login.ok()) return;
+            String refreshToken = login.json().path("refreshToken").asText();
+
+            for (int i = 0; i < REFRESHES; i++) {
+                HttpDriver.Response refreshed = http.postJson("POST /api/auth/refresh", "/api/auth/refresh",
+                        Map.of("refreshToken", refreshToken));
+                if (refreshed == null || !refreshed.ok()) return;
+                refreshToken = refreshed.json().path("refreshToken").asText();
+            }
+            http.postJson("POST /api/auth/logout", "/api/auth/logout", Map.of("refreshToken", refreshToken));
+        };
+    }
+}
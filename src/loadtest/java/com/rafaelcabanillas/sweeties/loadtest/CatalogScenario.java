@@ -0,0 +1,64 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Random;
+
+/**
+ * Storefront browsing: the full catalog and the featured strip (revalidated with
+ * If-None-Match once the browser has them), a few pages of the infinite scroll, then
+ * some product pages. One visit in five starts with a cold browser cache.
+ */
+final class CatalogScenario implements Scenario {
+
+    private final SeedData data;
+
+    CatalogScenario(SeedData data) {
+        this.data = data;
+    }
+
+    @Override
+    public String name() {
+        return "catalog";
+    }
+
+    @Override
+    public VirtualUser newUser(HttpDriver http, Random random) {
+        return new VirtualUser() {
+            private String catalogEtag;
+            private String featuredEtag;
+
+            @Override
+            public void iterate() throws Exception {
+                if (catalogEtag == null || random.nextInt(5) == 0) {
+                    catalogEtag = etag(http.get("GET /api/items", "/api/items"), null);
+                    featuredEtag = etag(http.get("GET /api/items/featured", "/api/items/featured"), null);
+                } else {
+                    catalogEtag = etag(http.get("GET /api/items (If-None-Match)", "/api/items",
+                            "If-None-Match", catalogEtag), catalogEtag);
+                    featuredEtag = featuredEtag == null ? null : etag(http.get("GET /api/items/featured (If-None-Match)",
+                            "/api/items/featured", "If-None-Match", featuredEtag), featuredEtag);
+                }
+
+                Long cursor = null;
+                for (int p = 0, pages = 1 + random.nextInt(3); p < pages; p++) {
+                    HttpDriver.Response page = http.get("GET /api/items/page",
+                            "/api/items/page?limit=24" + (cursor == null ? "" : "&cursor=" + cursor));
+                    if (page == null || page.status() != 200) break;
+                    JsonNode next = page.json().path("nextCursor");
+                    if (!next.canConvertToLong()) break;
+                    cursor = next.asLong();
+                }
+
+                for (int d = 0, views = 1 + random.nextInt(3); d < views; d++) {
+                    SeedData.Item item = data.items().get(random.nextInt(data.items().size()));
+                    http.get("GET /api/items/{id}", "/api/items/" + item.id());
+                }
+            }
+        };
+    }
+
+    private static String etag(HttpDriver.Response response, String previous) {
+        return response == null ? previous : response.header("ETag").orElse(previous);
+    }
+}
@@ -0,0 +1,61 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Checkout bursts: every virtual user places orders back to back, 1-4 lines of visible
+ * items priced as the storefront showed them, each with its own Idempotency-Key. One
+ * checkout in ten is submitted twice with the same key (a double click or a retry).
+ */
+final class CheckoutScenario implements Scenario {
+
+    private final SeedData data;
+
+    CheckoutScenario(SeedData data) {
+        this.data = data;
+    }
+
+    @Override
+    public String name() {
+        return "checkout";
+    }
+
+    @Override
+    public VirtualUser newUser(HttpDriver http, Random random) {
+        return () -> {
+            List<Map<String, Object>> lines = new ArrayList<>();
+            long totalCents = 0;
+            for (int l = 0, k = 1 + random.nextInt(4); l < k; l++) {
+                SeedData.Item item = data.items().get(random.nextInt(data.items().size()));
+                int quantity = 1 + random.nextInt(3);
+                totalCents += item.priceCents() * quantity;
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("productId", Long.toString(item.id()));
+                line.put("name", item.name());
+                line.put("price", item.priceCents() / 100.0);
+                line.put("quantity", quantity);
+                lines.add(line);
+            }
+            int customer = random.nextInt(Math.max(1, data.customerEmails().size()));
+            Map<String, Object> order = new LinkedHashMap<>();
+            order.put("name", "Cliente " + customer);
+            order.put("email", data.customerEmails().isEmpty()
+                    ? DataSeeder.customerEmail(customer) : data.customerEmails().get(customer));
+            order.put("phone", String.format("55%08d", customer));
+            order.put("note", random.nextInt(4) == 0 ? "Para regalo, por favor" : null);
+            order.put("items", lines);
+            order.put("total", totalCents / 100.0);
+
+            String key = UUID.randomUUID().toString();
+            HttpDriver.Response created = http.postJson("POST /api/orders", "/api/orders", order, "Idempotency-Key", key);
+            if (created != null && created.ok() && random.nextInt(10) == 0) {
+                http.postJson("POST /api/orders (replayed key)", "/api/orders", order, "Idempotency-Key", key);
+            }
+        };
+    }
+}
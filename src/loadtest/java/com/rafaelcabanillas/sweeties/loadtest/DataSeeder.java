@@ -0,0 +1,263 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds the load-test database: creates it next to the dev database if missing, runs
+ * the app's Flyway migrations, then replaces every row with synthetic data drawn from a
+ * fixed random seed, so each run starts from the same catalog, order history and users.
+ * The dev database itself is never written.
+ */
+final class DataSeeder {
+
+    static final String ADMIN_USERNAME = "loadtest-admin";
+    static final String PASSWORD = "loadtest-password";
+    static final String SHOPPER_PREFIX = "shopper";
+
+    private static final String[] CREATURES = {"Conejito", "Osito", "Gatito", "Pulpo", "Dinosaurio", "Ballena",
+            "Zorro", "Pingüino", "Unicornio", "Ajolote", "Rana", "Búho", "Abeja", "Tortuga", "Hongo", "Dragón"};
+    private static final String[] COLORS = {"rosa", "lila", "menta", "miel", "cielo", "coral", "vainilla", "lavanda"};
+    private static final String[] MATERIALS = {"Algodón", "Acrílico", "Chenille", "Terciopelo", "Fibra hueca",
+            "Ojos de seguridad", "Lana merino", "Bambú"};
+    private static final String[] STATUSES = {"PENDIENTE", "ENVIADO", "ENTREGADO"};
+    private static final int BATCH = 1000;
+
+    private final LoadTestOptions options;
+    private final Random random;
+
+    DataSeeder(LoadTestOptions options) {
+        this.options = options;
+        this.random = new Random(options.randomSeed());
+    }
+
+    void createDatabaseIfMissing() throws SQLException {
+        try (Connection c = DriverManager.getConnection(options.jdbcUrl(options.adminDatabase()),
+                options.dbUser(), options.dbPassword());
+             PreparedStatement exists = c.prepareStatement("SELECT 1 FROM pg_database WHERE datname = ?")) {
+            exists.setString(1, options.database());
+            try (ResultSet rs = exists.executeQuery()) {
+                if (rs.next()) return;
+            }
+            try (Statement s = c.createStatement()) {
+                s.execute("CREATE DATABASE \"" + options.database().replace("\"", "") + "\"");
+            }
+        }
+    }
+
+    void migrate() {
+        Flyway.configure()
+                .dataSource(options.jdbcUrl(options.database()), options.dbUser(), options.dbPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    void seed() throws SQLException {
+        try (Connection c = connect()) {
+            c.setAutoCommit(false);
+            try (Statement s = c.createStatement()) {
+                s.execute("TRUNCATE items, orders, refresh_tokens, users, sales_rollups, sales_product_rollups "
+                        + "RESTART IDENTITY CASCADE");
+            }
+            long[] priceCents = seedItems(c);
+            seedOrders(c, priceCents);
+            seedUsers(c);
+            c.commit();
+            c.setAutoCommit(true);
+            try (Statement s = c.createStatement()) {
+                s.execute("VACUUM ANALYZE"); // fresh statistics, as a long-lived database would have
+            }
+        }
+    }
+
+    private long[] seedItems(Connection c) throws SQLException {
+        int n = options.items();
+        long[] priceCents = new long[n + 1];
+        try (PreparedStatement item = c.prepareStatement("INSERT INTO items (id, name, description, price, image_url, "
+                + "image_public_id, is_featured, is_visible) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement material = c.prepareStatement("INSERT INTO item_materials (item_id, material) VALUES (?, ?)");
+             PreparedStatement size = c.prepareStatement("INSERT INTO item_sizes (item_id, alto, ancho) VALUES (?, ?, ?)");
+             PreparedStatement sprite = c.prepareStatement("INSERT INTO item_sprites (item_id, sprite_url) VALUES (?, ?)");
+             PreparedStatement spriteId = c.prepareStatement(
+                     "INSERT INTO item_sprite_public_ids (item_id, sprite_public_id) VALUES (?, ?)")) {
+            for (int id = 1; id <= n; id++) {
+                String creature = CREATURES[random.nextInt(CREATURES.length)];
+                String color = COLORS[random.nextInt(COLORS.length)];
+                priceCents[id] = (80 + random.nextInt(1400)) * 100L + (random.nextBoolean() ? 50 : 0);
+                String publicId = "sweeties/items/loadtest-" + id;
+
+                item.setLong(1, id);
+                item.setString(2, creature + " " + color + " #" + id);
+                item.setString(3, "Amigurumi tejido a mano en tono " + color + ", relleno hipoalergénico. "
+                        + "Pieza " + id + " del catálogo sintético de pruebas de carga.");
+                item.setDouble(4, priceCents[id] / 100.0);
+                item.setString(5, cloudinaryUrl(publicId));
+                item.setString(6, publicId);
+                item.setBoolean(7, random.nextInt(50) == 0);
+                item.setBoolean(8, random.nextInt(20) != 0);
+                item.addBatch();
+
+                for (int m = 0, k = 1 + random.nextInt(3); m < k; m++) {
+                    material.setLong(1, id);
+                    material.setString(2, MATERIALS[random.nextInt(MATERIALS.length)]);
+                    material.addBatch();
+                }
+                size.setLong(1, id);
+                size.setDouble(2, 8 + random.nextInt(30));
+                size.setDouble(3, 6 + random.nextInt(20));
+                size.addBatch();
+                for (int s = 0, k = random.nextInt(5); s < k; s++) {
+                    String spritePublicId = publicId + "/sprite-" + s;
+                    sprite.setLong(1, id);
+                    sprite.setString(2, cloudinaryUrl(spritePublicId));
+                    sprite.addBatch();
+                    spriteId.setLong(1, id);
+                    spriteId.setString(2, spritePublicId);
+                    spriteId.addBatch();
+                }
+                if (id % BATCH == 0 || id == n) {
+                    item.executeBatch();
+                    material.executeBatch();
+                    size.executeBatch();
+                    sprite.executeBatch();
+                    spriteId.executeBatch();
+                }
+            }
+        }
+        try (Statement s = c.createStatement()) {
+            s.execute("SELECT setval('items_id_seq', " + Math.max(n, 1) + ")");
+        }
+        return priceCents;
+    }
+
+    private void seedOrders(Connection c, long[] priceCents) throws SQLException {
+        int n = options.orders();
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        try (PreparedStatement order = c.prepareStatement("INSERT INTO orders (id, name, email, phone, note, total, "
+                + "status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement line = c.prepareStatement(
+                     "INSERT INTO order_items (order_id, product_id, name, price, quantity) VALUES (?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= n; id++) {
+                int customer = random.nextInt(Math.max(1, n / 10));
+                // Older orders are mostly delivered, the last few days mostly pending
+                OffsetDateTime createdAt = now.minusMinutes(random.nextInt(365 * 24 * 60));
+                long ageDays = java.time.Duration.between(createdAt, now).toDays();
+                String status = ageDays > 14 ? STATUSES[random.nextInt(10) == 0 ? 1 : 2]
+                        : STATUSES[random.nextInt(ageDays > 3 ? 3 : 2)];
+
+                long total = 0;
+                for (int l = 0, k = 1 + random.nextInt(4); l < k; l++) {
+                    int itemId = 1 + random.nextInt(options.items());
+                    int quantity = 1 + random.nextInt(3);
+                    total += priceCents[itemId] * quantity;
+                    line.setLong(1, id);
+                    line.setString(2, Integer.toString(itemId));
+                    line.setString(3, "Artículo " + itemId);
+                    line.setDouble(4, priceCents[itemId] / 100.0);
+                    line.setInt(5, quantity);
+                    line.addBatch();
+                }
+                order.setLong(1, id);
+                order.setString(2, "Cliente " + customer);
+                order.setString(3, customerEmail(customer));
+                order.setString(4, String.format("55%08d", customer));
+                order.setString(5, random.nextInt(4) == 0 ? "Para regalo, por favor" : null);
+                order.setDouble(6, total / 100.0);
+                order.setString(7, status);
+                order.setObject(8, createdAt);
+                order.setObject(9, createdAt);
+                order.addBatch();
+                if (id % BATCH == 0 || id == n) {
+                    order.executeBatch();
+                    line.executeBatch();
+                }
+            }
+        }
+        // Same convention as V10: the next pooled block starts right after the seeded ids
+        try (Statement s = c.createStatement()) {
+            s.execute("SELECT setval('orders_seq', " + (n + 50) + ", false)");
+        }
+    }
+
+    private void seedUsers(Connection c) throws SQLException {
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement user = c.prepareStatement(
+                "INSERT INTO users (name, username, email, password, role, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            addUser(user, "Admin de carga", ADMIN_USERNAME, "admin@loadtest.example", hash, "ADMIN", now);
+            for (int i = 0; i < options.shoppers(); i++) {
+                addUser(user, "Comprador " + i, SHOPPER_PREFIX + i, SHOPPER_PREFIX + i + "@loadtest.example", hash, "GUEST", now);
+            }
+            user.executeBatch();
+        }
+    }
+
+    private static void addUser(PreparedStatement user, String name, String username, String email, String hash,
+                                String role, Timestamp now) throws SQLException {
+        user.setString(1, name);
+        user.setString(2, username);
+        user.setString(3, email);
+        user.setString(4, hash);
+        user.setString(5, role);
+        user.setTimestamp(6, now);
+        user.setTimestamp(7, now);
+        user.addBatch();
+    }
+
+    /** What the scenarios draw from; read back from the database so it also works with seed=false. */
+    SeedData load() throws SQLException {
+        try (Connection c = connect(); Statement s = c.createStatement()) {
+            List<SeedData.Item> items = new ArrayList<>();
+            try (ResultSet rs = s.executeQuery("SELECT id, name, price FROM items WHERE is_visible ORDER BY id")) {
+                while (rs.next()) {
+                    items.add(new SeedData.Item(rs.getLong(1), rs.getString(2), Math.round(rs.getDouble(3) * 100)));
+                }
+            }
+            List<String> emails = new ArrayList<>();
+            try (ResultSet rs = s.executeQuery("SELECT DISTINCT email FROM orders ORDER BY email LIMIT 1000")) {
+                while (rs.next()) emails.add(rs.getString(1));
+            }
+            List<String> shoppers = new ArrayList<>();
+            try (ResultSet rs = s.executeQuery("SELECT username FROM users WHERE username LIKE '"
+                    + SHOPPER_PREFIX + "%' ORDER BY id")) {
+                while (rs.next()) shoppers.add(rs.getString(1));
+            }
+            long maxOrderId;
+            try (ResultSet rs = s.executeQuery("SELECT COALESCE(MAX(id), 0) FROM orders")) {
+                rs.next();
+                maxOrderId = rs.getLong(1);
+            }
+            if (items.isEmpty() || shoppers.isEmpty()) {
+                throw new IllegalStateException("Database " + options.database() + " has no seed data; run with seed=true");
+            }
+            return new SeedData(List.copyOf(items), List.copyOf(emails), List.copyOf(shoppers), maxOrderId);
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(options.jdbcUrl(options.database()), options.dbUser(), options.dbPassword());
+    }
+
+    private static String cloudinaryUrl(String publicId) {
+        return "https://res.cloudinary.com/" + ExternalStubs.CLOUD_NAME + "/image/upload/" + publicId + ".png";
+    }
+
+    static String customerEmail(int customer) {
+        return "cliente" + customer + "@loadtest.example";
+    }
+}
@@ -0,0 +1,89 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-ins for api.sendgrid.com and api.cloudinary.com, so a load run never
+ * sends mail or touches real images. Each call waits {@code latency} before answering,
+ * roughly what the real APIs take, so the app's email workers and Cloudinary bulkhead
+ * see realistic hold times.
+ */
+final class ExternalStubs implements AutoCloseable {
+
+    static final String CLOUD_NAME = "loadtest";
+
+    private final HttpServer server;
+    private final long latencyMillis;
+    private final AtomicLong emails = new AtomicLong();
+    private final AtomicLong cloudinaryCalls = new AtomicLong();
+
+    ExternalStubs(Duration latency) throws IOException {
+        this.latencyMillis = latency.toMillis();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v3/mail/send", exchange -> {
+            emails.incrementAndGet();
+            respond(exchange, 202, "");
+        });
+        server.createContext("/v1_1/" + CLOUD_NAME + "/image/upload", exchange -> {
+            long n = cloudinaryCalls.incrementAndGet();
+            String id = "loadtest/upload-" + n;
+            respond(exchange, 200, "{\"public_id\":\"" + id + "\",\"secure_url\":\"https://res.cloudinary.com/"
+                    + CLOUD_NAME + "/image/upload/" + id + ".png\"}");
+        });
+        server.createContext("/v1_1/" + CLOUD_NAME + "/image/destroy", exchange -> {
+            cloudinaryCalls.incrementAndGet();
+            respond(exchange, 200, "{\"result\":\"ok\"}");
+        });
+        server.start();
+    }
+
+    /** host:port, as SENDGRID_HOST (with plain HTTP) expects it. */
+    String sendGridHost() {
+        return "127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** Base URL for CLOUDINARY_UPLOAD_PREFIX. */
+    String cloudinaryPrefix() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    long emails() {
+        return emails.get();
+    }
+
+    long cloudinaryCalls() {
+        return cloudinaryCalls.get();
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            if (latencyMillis > 0) Thread.sleep(latencyMillis);
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
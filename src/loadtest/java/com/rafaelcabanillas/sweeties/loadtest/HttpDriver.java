@@ -0,0 +1,93 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+/**
+ * One virtual user's HTTP access to the app: sends a request, reads the whole body and
+ * records it under {@code label} while the measurement window is open. 2xx and 304 count
+ * as success; anything else, or no response at all, is an error.
+ */
+final class HttpDriver {
+
+    static final ObjectMapper JSON = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    record Response(int status, HttpResponse<byte[]> raw) {
+        boolean ok() {
+            return status / 100 == 2 || status == 304;
+        }
+
+        Optional<String> header(String name) {
+            return raw.headers().firstValue(name);
+        }
+
+        JsonNode json() throws IOException {
+            return JSON.readTree(raw.body());
+        }
+    }
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final Measurements measurements;
+    private final BooleanSupplier recording;
+
+    HttpDriver(HttpClient client, URI baseUri, Measurements measurements, BooleanSupplier recording) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.measurements = measurements;
+        this.recording = recording;
+    }
+
+    Response get(String label, String path, String... headers) throws InterruptedException {
+        return send(label, request(path, headers).GET().build());
+    }
+
+    Response postJson(String label, String path, Object body, String... headers) throws InterruptedException {
+        byte[] json;
+        try {
+            json = JSON.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return send(label, request(path, headers)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json))
+                .build());
+    }
+
+    /** Null when there was no response; the failure is already recorded. */
+    private Response send(String label, HttpRequest request) throws InterruptedException {
+        boolean record = recording.getAsBoolean();
+        long start = System.nanoTime();
+        HttpResponse<byte[]> raw;
+        try {
+            raw = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            if (record) measurements.recordFailure(label);
+            return null;
+        }
+        long nanos = System.nanoTime() - start;
+        Response response = new Response(raw.statusCode(), raw);
+        if (record) {
+            int sql = raw.headers().firstValue("X-Sql-Count").map(Integer::parseInt).orElse(-1);
+            measurements.record(label, raw.statusCode(), nanos, raw.body().length, sql, !response.ok());
+        }
+        return response;
+    }
+
+    private HttpRequest.Builder request(String path, String... headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(REQUEST_TIMEOUT);
+        if (headers.length > 0) builder.headers(headers);
+        return builder;
+    }
+}
@@ -0,0 +1,72 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Load-test harness for the storefront and admin flows. Against the docker-compose
+ * Postgres (with the app stopped or on another port):
+ * <pre>
+ * docker compose up -d postgres
+ * ./mvnw -Ploadtest test-compile exec:exec
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="duration=PT2M baseline=main-report.json"
+ * </pre>
+ * It seeds a separate {@code sweeties_loadtest} database (5,000 items, 20,000 orders,
+ * an admin and 200 shoppers), starts the app against it with SendGrid and Cloudinary
+ * stubbed, runs each scenario in turn and writes {@code target/loadtest/report.json}
+ * and {@code report.html}. Options are listed in {@link LoadTestOptions}; run both
+ * builds on the same machine with the same options before comparing reports.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        DataSeeder seeder = new DataSeeder(options);
+        if (options.appUrl() == null) {
+            seeder.createDatabaseIfMissing();
+            seeder.migrate();
+        }
+        if (options.seed()) {
+            long t = System.nanoTime();
+            seeder.seed();
+            System.out.printf("Seeded %d items and %d orders in %d ms%n", options.items(), options.orders(),
+                    (System.nanoTime() - t) / 1_000_000);
+        }
+        SeedData data = seeder.load();
+
+        try (ExternalStubs stubs = new ExternalStubs(options.stubLatency())) {
+            List<ScenarioRunner.Result> results = new ArrayList<>();
+            AppUnderTest app = options.appUrl() == null ? AppUnderTest.launch(options, stubs) : null;
+            try {
+                URI baseUri = app != null ? app.baseUri() : URI.create(options.appUrl());
+                for (String name : options.scenarios()) {
+                    Scenario scenario = switch (name) {
+                        case "catalog" -> new CatalogScenario(data);
+                        case "checkout" -> new CheckoutScenario(data);
+                        case "admin" -> new AdminOrdersScenario(data);
+                        case "auth" -> new AuthChurnScenario(data);
+                        default -> throw new IllegalArgumentException("Unknown scenario: " + name);
+                    };
+                    int users = options.users().get(name);
+                    System.out.printf("Running %s: %d users, %s warmup, %s measured%n", name, users,
+                            options.warmup(), options.duration());
+                    results.add(ScenarioRunner.run(scenario, users, baseUri, options.warmup(), options.duration(),
+                            options.randomSeed()));
+                }
+            } finally {
+                if (app != null) app.close();
+            }
+
+            Report report = new Report(options, results, stubs);
+            report.write(options.out());
+            System.out.println();
+            System.out.print(report.summary());
+            System.out.println("Report: " + options.out().resolve("report.html").toAbsolutePath());
+        }
+    }
+}
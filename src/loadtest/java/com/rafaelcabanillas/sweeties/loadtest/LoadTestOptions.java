@@ -0,0 +1,135 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line options for {@link LoadTest}, given as {@code key=value} pairs in
+ * {@code -Dloadtest.args}. Every default is fixed so two runs of the same build see the
+ * same data, the same request mix and the same concurrency.
+ */
+record LoadTestOptions(
+        String dbHost,
+        int dbPort,
+        String dbUser,
+        String dbPassword,
+        // Existing database used only to CREATE the load-test one
+        String adminDatabase,
+        String database,
+        boolean seed,
+        int items,
+        int orders,
+        int shoppers,
+        long randomSeed,
+        List<String> scenarios,
+        Map<String, Integer> users,
+        Duration warmup,
+        Duration duration,
+        // Run against an app that is already up instead of launching one
+        String appUrl,
+        String appJvmArgs,
+        boolean virtualThreads,
+        Duration stubLatency,
+        Path out,
+        Path baseline) {
+
+    static final List<String> ALL_SCENARIOS = List.of("catalog", "checkout", "admin", "auth");
+    private static final Map<String, Integer> DEFAULT_USERS = Map.of("catalog", 32, "checkout", 16, "admin", 4, "auth", 8);
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> given = new HashMap<>();
+        for (String arg : args) {
+            String a = arg.startsWith("--") ? arg.substring(2) : arg;
+            int eq = a.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            given.put(a.substring(0, eq), a.substring(eq + 1));
+        }
+        Options o = new Options(given);
+
+        Map<String, Integer> users = new LinkedHashMap<>();
+        for (String scenario : ALL_SCENARIOS) {
+            users.put(scenario, o.integer("users." + scenario, DEFAULT_USERS.get(scenario)));
+        }
+        List<String> scenarios = Arrays.stream(o.string("scenarios", String.join(",", ALL_SCENARIOS)).split(","))
+                .map(String::strip)
+                .filter(s -> !s.isEmpty())
+                .toList();
+        for (String s : scenarios) {
+            if (!ALL_SCENARIOS.contains(s)) throw new IllegalArgumentException("Unknown scenario: " + s);
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                o.string("db.host", "localhost"),
+                o.integer("db.port", 5432),
+                o.string("db.user", "sweeties_user"),
+                o.string("db.password", "secret"),
+                o.string("db.admin-database", "sweeties_db"),
+                o.string("db.database", "sweeties_loadtest"),
+                Boolean.parseBoolean(o.string("seed", "true")),
+                o.integer("seed.items", 5000),
+                o.integer("seed.orders", 20000),
+                o.integer("seed.shoppers", 200),
+                Long.parseLong(o.string("seed.random", "42")),
+                scenarios,
+                users,
+                Duration.parse(o.string("warmup", "PT15S")),
+                Duration.parse(o.string("duration", "PT60S")),
+                o.string("app.url", null),
+                o.string("app.jvm-args", "-Xms512m -Xmx512m"),
+                Boolean.parseBoolean(o.string("app.virtual-threads", "false")),
+                Duration.parse(o.string("stub.latency", "PT0.05S")),
+                Path.of(o.string("out", "target/loadtest")),
+                o.string("baseline", null) == null ? null : Path.of(o.string("baseline", null)));
+        o.rejectUnknown();
+        return options;
+    }
+
+    String jdbcUrl(String db) {
+        return "jdbc:postgresql://" + dbHost + ":" + dbPort + "/" + db + "?reWriteBatchedInserts=true";
+    }
+
+    /** What goes into the report, so a diff between two reports shows a changed setup too. */
+    Map<String, Object> describe() {
+        Map<String, Object> d = new LinkedHashMap<>();
+        d.put("items", items);
+        d.put("orders", orders);
+        d.put("shoppers", shoppers);
+        d.put("randomSeed", randomSeed);
+        d.put("seeded", seed);
+        d.put("warmupSeconds", warmup.toMillis() / 1000.0);
+        d.put("durationSeconds", duration.toMillis() / 1000.0);
+        d.put("users", users);
+        d.put("appJvmArgs", appUrl == null ? appJvmArgs : null);
+        d.put("virtualThreads", virtualThreads);
+        d.put("stubLatencyMs", stubLatency.toMillis());
+        return d;
+    }
+
+    private static final class Options {
+        private final Map<String, String> given;
+        private final Map<String, String> unread;
+
+        Options(Map<String, String> given) {
+            this.given = given;
+            this.unread = new HashMap<>(given);
+        }
+
+        String string(String key, String fallback) {
+            unread.remove(key);
+            return given.getOrDefault(key, fallback);
+        }
+
+        int integer(String key, int fallback) {
+            return Integer.parseInt(string(key, Integer.toString(fallback)));
+        }
+
+        void rejectUnknown() {
+            if (!unread.isEmpty()) throw new IllegalArgumentException("Unknown options: " + unread.keySet());
+        }
+    }
+}
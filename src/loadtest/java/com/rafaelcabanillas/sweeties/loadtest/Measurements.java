@@ -0,0 +1,75 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies and outcomes for one virtual user, per request label. Each user records into
+ * its own instance (no contention on the hot path); the runner merges them at the end.
+ * Latency is send-to-last-byte, in microseconds, to 3 significant digits.
+ */
+final class Measurements {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    static final class Label {
+        final Histogram latency = new Histogram(MAX_LATENCY_MICROS, 3);
+        final Map<Integer, Long> statuses = new TreeMap<>();
+        long requests;
+        long errors;
+        long bytes;
+        // From X-Sql-Count, on the responses that carried it
+        long sqlStatements;
+        long sqlResponses;
+
+        void add(Label other) {
+            latency.add(other.latency);
+            other.statuses.forEach((status, n) -> statuses.merge(status, n, Long::sum));
+            requests += other.requests;
+            errors += other.errors;
+            bytes += other.bytes;
+            sqlStatements += other.sqlStatements;
+            sqlResponses += other.sqlResponses;
+        }
+    }
+
+    final Map<String, Label> labels = new LinkedHashMap<>();
+    // Every request of the scenario, whatever its label
+    final Histogram all = new Histogram(MAX_LATENCY_MICROS, 3);
+    long iterations;
+    long failedIterations;
+
+    void record(String label, int status, long nanos, long bytes, int sqlStatements, boolean error) {
+        Label l = labels.computeIfAbsent(label, k -> new Label());
+        long micros = Math.min(Math.max(1, nanos / 1000), MAX_LATENCY_MICROS);
+        l.latency.recordValue(micros);
+        all.recordValue(micros);
+        l.statuses.merge(status, 1L, Long::sum);
+        l.requests++;
+        l.bytes += bytes;
+        if (error) l.errors++;
+        if (sqlStatements >= 0) {
+            l.sqlStatements += sqlStatements;
+            l.sqlResponses++;
+        }
+    }
+
+    /** A request that got no response at all (connection refused, timeout); status 0. */
+    void recordFailure(String label) {
+        Label l = labels.computeIfAbsent(label, k -> new Label());
+        l.statuses.merge(0, 1L, Long::sum);
+        l.requests++;
+        l.errors++;
+    }
+
+    void add(Measurements other) {
+        other.labels.forEach((name, label) -> labels.computeIfAbsent(name, k -> new Label()).add(label));
+        all.add(other.all);
+        iterations += other.iterations;
+        failedIterations += other.failedIterations;
+    }
+}
@@ -0,0 +1,230 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes {@code report.json} and {@code report.html}. The JSON is keyed by scenario and
+ * request label with fixed field order, so two reports diff line by line; pass an older
+ * one as {@code baseline=} and the HTML and console summary show the change in
+ * throughput and p95/p99 next to each row.
+ */
+final class Report {
+
+    private final Map<String, Object> json = new LinkedHashMap<>();
+    private final JsonNode baseline;
+
+    Report(LoadTestOptions options, List<ScenarioRunner.Result> results, ExternalStubs stubs) throws IOException {
+        baseline = options.baseline() == null ? null : HttpDriver.JSON.readTree(options.baseline().toFile());
+
+        Map<String, Object> build = new LinkedHashMap<>();
+        build.put("commit", gitCommit());
+        build.put("java", System.getProperty("java.version"));
+        build.put("cpus", Runtime.getRuntime().availableProcessors());
+        json.put("generatedAt", OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS).toString());
+        json.put("build", build);
+        json.put("setup", options.describe());
+
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        for (ScenarioRunner.Result r : results) {
+            Measurements m = r.measurements();
+            double seconds = r.duration().toMillis() / 1000.0;
+            long requests = m.labels.values().stream().mapToLong(l -> l.requests).sum();
+            long errors = m.labels.values().stream().mapToLong(l -> l.errors).sum();
+
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("users", r.users());
+            s.put("durationSeconds", seconds);
+            s.put("iterations", m.iterations);
+            s.put("failedIterations", m.failedIterations);
+            s.put("iterationsPerSecond", round(m.iterations / seconds));
+            s.put("requests", requests);
+            s.put("errors", errors);
+            s.put("throughput", round(requests / seconds));
+            s.put("latencyMs", latency(m.all));
+
+            Map<String, Object> labels = new LinkedHashMap<>();
+            m.labels.forEach((name, l) -> {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("requests", l.requests);
+                entry.put("errors", l.errors);
+                entry.put("throughput", round(l.requests / seconds));
+                entry.put("statuses", l.statuses);
+                entry.put("latencyMs", latency(l.latency));
+                entry.put("avgBytes", l.requests == 0 ? 0 : l.bytes / l.requests);
+                entry.put("avgSqlStatements", l.sqlResponses == 0 ? null : round((double) l.sqlStatements / l.sqlResponses));
+                labels.put(name, entry);
+            });
+            s.put("requestsByLabel", labels);
+            scenarios.put(r.scenario(), s);
+        }
+        json.put("scenarios", scenarios);
+        json.put("stubs", Map.of("sendGridEmails", stubs.emails(), "cloudinaryCalls", stubs.cloudinaryCalls()));
+    }
+
+    void write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        HttpDriver.JSON.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(dir.resolve("report.json").toFile(), json);
+        Files.writeString(dir.resolve("report.html"), html(), StandardCharsets.UTF_8);
+    }
+
+    /** One line per scenario for the console. */
+    String summary() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%-10s %10s %9s %9s %9s %8s%n", "scenario", "req/s", "p50 ms", "p95 ms", "p99 ms", "errors"));
+        scenarios().forEach((name, s) -> {
+            Map<String, Object> latency = map(s.get("latencyMs"));
+            out.append(String.format(Locale.ROOT, "%-10s %10.1f %9.2f %9.2f %9.2f %8d", name, s.get("throughput"),
+                    latency.get("p50"), latency.get("p95"), latency.get("p99"), s.get("errors")));
+            JsonNode base = baseline == null ? null : baseline.path("scenarios").path(name);
+            if (base != null && !base.isMissingNode()) {
+                out.append(String.format(Locale.ROOT, "   vs baseline: req/s %s, p95 %s, p99 %s",
+                        delta((Double) s.get("throughput"), base.path("throughput")),
+                        delta((Double) latency.get("p95"), base.path("latencyMs").path("p95")),
+                        delta((Double) latency.get("p99"), base.path("latencyMs").path("p99"))));
+            }
+            out.append(System.lineSeparator());
+        });
+        return out.toString();
+    }
+
+    private String html() {
+        StringBuilder h = new StringBuilder();
+        Map<String, Object> build = map(json.get("build"));
+        h.append("<!DOCTYPE html>\n<html lang=\"es\"><head><meta charset=\"utf-8\"><title>Sweeties load test</title>\n<style>")
+                .append("body{font-family:system-ui,sans-serif;margin:2rem;color:#2a2a2a}")
+                .append("table{border-collapse:collapse;margin-bottom:2rem}th,td{padding:.3rem .7rem;border-bottom:1px solid #ddd;text-align:right}")
+                .append("th:first-child,td:first-child{text-align:left}th{background:#f3effd}")
+                .append(".worse{color:#b00020}.better{color:#1b7f3b}.muted{color:#777}")
+                .append("</style></head><body>\n<h1>Sweeties load test</h1>\n<p class=\"muted\">")
+                .append(esc(json.get("generatedAt"))).append(" · commit ").append(esc(build.get("commit")))
+                .append(" · Java ").append(esc(build.get("java"))).append(" · ").append(esc(build.get("cpus"))).append(" CPUs");
+        if (baseline != null) {
+            h.append(" · compared with ").append(esc(baseline.path("build").path("commit").asText("?")))
+                    .append(" (").append(esc(baseline.path("generatedAt").asText("?"))).append(")");
+        }
+        h.append("</p>\n<p class=\"muted\">Setup: ").append(esc(json.get("setup"))).append("</p>\n");
+
+        h.append("<h2>Scenarios</h2>\n<table><tr><th>scenario</th><th>users</th><th>iterations/s</th><th>req/s</th>")
+                .append("<th>p50 ms</th><th>p95 ms</th><th>p99 ms</th><th>max ms</th><th>errors</th>")
+                .append(baseline != null ? "<th>Δ req/s</th><th>Δ p95</th><th>Δ p99</th>" : "").append("</tr>\n");
+        scenarios().forEach((name, s) -> {
+            JsonNode base = baseline == null ? null : baseline.path("scenarios").path(name);
+            h.append("<tr><td>").append(esc(name)).append("</td><td>").append(s.get("users")).append("</td><td>")
+                    .append(s.get("iterationsPerSecond")).append("</td>");
+            row(h, s, base);
+        });
+        h.append("</table>\n");
+
+        scenarios().forEach((name, s) -> {
+            h.append("<h2>").append(esc(name)).append("</h2>\n<table><tr><th>request</th><th>count</th><th>statuses</th>")
+                    .append("<th>SQL/req</th><th>KB/resp</th><th>req/s</th><th>p50 ms</th><th>p95 ms</th><th>p99 ms</th>")
+                    .append("<th>max ms</th><th>errors</th>")
+                    .append(baseline != null ? "<th>Δ req/s</th><th>Δ p95</th><th>Δ p99</th>" : "").append("</tr>\n");
+            map(s.get("requestsByLabel")).forEach((label, value) -> {
+                Map<String, Object> l = map(value);
+                JsonNode base = baseline == null ? null
+                        : baseline.path("scenarios").path(name).path("requestsByLabel").path(label);
+                h.append("<tr><td>").append(esc(label)).append("</td><td>").append(l.get("requests")).append("</td><td>")
+                        .append(esc(l.get("statuses"))).append("</td><td>")
+                        .append(l.get("avgSqlStatements") == null ? "" : l.get("avgSqlStatements")).append("</td><td>")
+                        .append(String.format(Locale.ROOT, "%.1f", ((Number) l.get("avgBytes")).longValue() / 1024.0))
+                        .append("</td>");
+                row(h, l, base);
+            });
+            h.append("</table>\n");
+        });
+        return h.append("</body></html>\n").toString();
+    }
+
+    private void row(StringBuilder h, Map<String, Object> entry, JsonNode base) {
+        Map<String, Object> latency = map(entry.get("latencyMs"));
+        h.append("<td>").append(entry.get("throughput")).append("</td>");
+        for (String p : List.of("p50", "p95", "p99", "max")) {
+            h.append("<td>").append(latency.get(p)).append("</td>");
+        }
+        h.append("<td>").append(entry.get("errors")).append("</td>");
+        if (baseline == null) {
+            h.append("</tr>\n");
+            return;
+        }
+        boolean known = base != null && !base.isMissingNode();
+        h.append(deltaCell((Double) entry.get("throughput"), known ? base.path("throughput") : null, true))
+                .append(deltaCell((Double) latency.get("p95"), known ? base.path("latencyMs").path("p95") : null, false))
+                .append(deltaCell((Double) latency.get("p99"), known ? base.path("latencyMs").path("p99") : null, false))
+                .append("</tr>\n");
+    }
+
+    private static String deltaCell(double now, JsonNode before, boolean higherIsBetter) {
+        if (before == null || !before.isNumber() || before.asDouble() == 0) return "<td class=\"muted\">–</td>";
+        double change = (now - before.asDouble()) / before.asDouble();
+        // Within ±5% is run-to-run noise on a laptop
+        String css = Math.abs(change) < 0.05 ? "muted" : (change > 0) == higherIsBetter ? "better" : "worse";
+        return "<td class=\"" + css + "\">" + String.format(Locale.ROOT, "%+.1f%%", change * 100) + "</td>";
+    }
+
+    private static String delta(double now, JsonNode before) {
+        if (!before.isNumber() || before.asDouble() == 0) return "n/a";
+        return String.format(Locale.ROOT, "%+.1f%%", (now - before.asDouble()) / before.asDouble() * 100);
+    }
+
+    private static Map<String, Object> latency(Histogram h) {
+        Map<String, Object> l = new LinkedHashMap<>();
+        l.put("p50", millis(h.getValueAtPercentile(50)));
+        l.put("p95", millis(h.getValueAtPercentile(95)));
+        l.put("p99", millis(h.getValueAtPercentile(99)));
+        l.put("max", millis(h.getMaxValue()));
+        l.put("mean", round(h.getTotalCount() == 0 ? 0 : h.getMean() / 1000.0));
+        return l;
+    }
+
+    private Map<String, Map<String, Object>> scenarios() {
+        Map<String, Map<String, Object>> out = new LinkedHashMap<>();
+        map(json.get("scenarios")).forEach((name, s) -> out.put(name, map(s)));
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static String esc(Object value) {
+        return String.valueOf(value).replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static String gitCommit() {
+        try {
+            Process git = new ProcessBuilder("git", "describe", "--always", "--dirty").redirectErrorStream(true).start();
+            String out = new String(git.getInputStream().readAllBytes(), StandardCharsets.UTF_8).strip();
+            return git.waitFor(10, TimeUnit.SECONDS) && git.exitValue() == 0 ? out : "unknown";
+        } catch (IOException e) {
+            return "unknown";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "unknown";
+        }
+    }
+}
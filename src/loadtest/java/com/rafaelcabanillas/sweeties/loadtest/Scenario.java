@@ -0,0 +1,20 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import java.util.Random;
+
+/**
+ * A scripted user flow. Each virtual user gets its own {@link VirtualUser} (cached ETags,
+ * tokens, ...) and calls {@link VirtualUser#iterate()} back to back, with no think time,
+ * until the run ends.
+ */
+interface Scenario {
+
+    String name();
+
+    VirtualUser newUser(HttpDriver http, Random random);
+
+    interface VirtualUser {
+        /** One pass through the script; an exception ends the pass and counts as a failed iteration. */
+        void iterate() throws Exception;
+    }
+}
@@ -0,0 +1,67 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs one scenario as a closed workload: {@code users} virtual threads iterate the script
+ * for warmup + duration, and only requests sent inside the duration window are recorded.
+ * Each user's random stream is derived from the run seed, so the request mix repeats.
+ * With no think time the numbers are capacity at that concurrency, not an open-arrival
+ * latency under a fixed request rate.
+ */
+final class ScenarioRunner {
+
+    record Result(String scenario, int users, Duration duration, Measurements measurements) {}
+
+    private ScenarioRunner() {
+    }
+
+    static Result run(Scenario scenario, int users, URI baseUri, Duration warmup, Duration duration, long seed) {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        BooleanSupplier recording = () -> {
+            long now = System.nanoTime();
+            return now >= measureFrom && now < end;
+        };
+
+        List<Measurements> perUser = new ArrayList<>(users);
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+             ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < users; u++) {
+                Measurements measurements = new Measurements();
+                perUser.add(measurements);
+                Random random = new Random(seed * 31 + scenario.name().hashCode() * 1_000L + u);
+                Scenario.VirtualUser user = scenario.newUser(new HttpDriver(client, baseUri, measurements, recording), random);
+                pool.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        boolean counted = recording.getAsBoolean();
+                        try {
+                            user.iterate();
+                            if (counted) measurements.iterations++;
+                        } catch (InterruptedException e) {
+                            return;
+                        } catch (Exception e) {
+                            if (counted) measurements.failedIterations++;
+                        }
+                    }
+                });
+            }
+        }
+
+        Measurements total = new Measurements();
+        perUser.forEach(total::add);
+        return new Result(scenario.name(), users, duration, total);
+    }
+}
@@ -0,0 +1,9 @@
+package com.rafaelcabanillas.sweeties.loadtest;
+
+import java.util.List;
+
+/** The seeded rows the scenarios pick from: visible items, customer emails, shoppers. */
+record SeedData(List<Item> items, List<String> customerEmails, List<String> shoppers, long maxOrderId) {
+
+    record Item(long id, String name, long priceCents) {}
+}
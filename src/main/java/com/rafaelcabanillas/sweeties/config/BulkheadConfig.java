@@ -0,0 +1,40 @@
+package com.rafaelcabanillas.sweeties.config;
+
+import com.rafaelcabanillas.sweeties.util.Bulkhead;
+import com.rafaelcabanillas.sweeties.util.BulkheadDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts the application's DataSource behind the "db" bulkhead (see {@link BulkheadDataSource}).
+ * The limit defaults to the Hikari pool size, so at most that many threads hold or wait
+ * inside the pool and the rest queue on the bulkhead, which gives up sooner than Hikari.
+ */
+@Configuration
+public class BulkheadConfig {
+
+    @Bean
+    static BeanPostProcessor dataSourceBulkhead(ObjectProvider<MeterRegistry> registry, Environment env) {
+        boolean enabled = env.getProperty("sweeties.bulkhead.db.enabled", Boolean.class, true);
+        int poolSize = env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        int limit = env.getProperty("sweeties.bulkhead.db.max-concurrent", Integer.class, poolSize);
+        Duration timeout = env.getProperty("sweeties.bulkhead.db.acquire-timeout", Duration.class, Duration.ofSeconds(5));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof BulkheadDataSource) {
+                    return bean;
+                }
+                return new BulkheadDataSource(dataSource, new Bulkhead("db", limit, timeout, registry.getObject()));
+            }
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package com.rafaelcabanillas.sweeties.config;
+
+import com.sendgrid.Client;
+import com.sendgrid.SendGrid;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One SendGrid client for the whole app, backed by a pooled keep-alive HTTP client
+ * (the SDK default opens a fresh client per {@code new SendGrid(...)}).
+ */
+@Configuration
+public class SendGridConfig {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient sendGridHttpClient(
+            @Value("${sendgrid.max-connections:20}") int maxConnections,
+            @Value("${sendgrid.connect-timeout-ms:5000}") int connectTimeoutMs,
+            @Value("${sendgrid.read-timeout-ms:15000}") int readTimeoutMs) {
+
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+        pool.setMaxTotal(maxConnections);
+        pool.setDefaultMaxPerRoute(maxConnections); // every call goes to the same host
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setConnectionRequestTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(requestConfig)
+                .evictIdleConnections(30L, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Bean
+    public SendGrid sendGrid(
+            CloseableHttpClient sendGridHttpClient,
+            @Value("${SENDGRID_API_KEY}") String apiKey,
+            @Value("${sendgrid.host:api.sendgrid.com}") String host,
+            @Value("${sendgrid.plain-http:false}") boolean plainHttp) {
+
+        // plain-http is only meant for local stubs (load tests, integration tests)
+        SendGrid sendGrid = new SendGrid(apiKey, new Client(sendGridHttpClient, plainHttp));
+        sendGrid.setHost(host);
+        return sendGrid;
+    }
+}
@@ -0,0 +1,38 @@
+package com.rafaelcabanillas.sweeties.config;
+
+import com.rafaelcabanillas.sweeties.util.SqlBudgetProperties;
+import com.rafaelcabanillas.sweeties.util.SqlStatementTracker;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes the application's DataSource through datasource-proxy so {@link SqlStatementTracker}
+ * sees every statement a request runs (see {@code SqlBudgetFilter}).
+ */
+@Configuration
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+public class SqlBudgetConfig {
+
+    @Bean
+    static BeanPostProcessor sqlStatementTracking(Environment env) {
+        boolean enabled = env.getProperty("sweeties.sql-budget.enabled", Boolean.class, true);
+        SqlStatementTracker tracker = new SqlStatementTracker();
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource).name(beanName).listener(tracker).build();
+            }
+        };
+    }
+}
@@ -1,15 +1,17 @@
 package com.rafaelcabanillas.sweeties.controller;
 
 import com.rafaelcabanillas.sweeties.dto.settings.AdminSettingsDTO;
-import com.rafaelcabanillas.sweeties.dto.settings.PublicAdminSettingsDTO;
 import com.rafaelcabanillas.sweeties.dto.settings.UpdateAdminSettingsDTO;
 import com.rafaelcabanillas.sweeties.service.AdminSettingsService;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions.Resource;
+import com.rafaelcabanillas.sweeties.util.SerializedResponseCache;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -21,14 +23,15 @@ import java.io.IOException;
 public class AdminSettingsController {
 
     private final AdminSettingsService adminSettingsService;
+    private final SerializedResponseCache responseCache;
 
     /**
-     * GET (Public) – projected doc
+     * GET (Public) – projected doc (PublicAdminSettingsDTO, pre-serialized)
      * Matches: GET /api/admin/admin-settings/public
      */
     @GetMapping(value = "/public", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<PublicAdminSettingsDTO> getPublicSettings() {
-        return ResponseEntity.ok(adminSettingsService.getPublicSettings());
+    public ResponseEntity<byte[]> getPublicSettings(WebRequest request) {
+        return responseCache.get(request, Resource.PUBLIC_SETTINGS, "public-settings", adminSettingsService::getPublicSettings);
     }
 
     /**
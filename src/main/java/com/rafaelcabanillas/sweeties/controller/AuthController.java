@@ -4,10 +4,10 @@ import com.rafaelcabanillas.sweeties.dto.AuthResponseDTO;
 import com.rafaelcabanillas.sweeties.dto.LoginRequestDTO;
 import com.rafaelcabanillas.sweeties.dto.RefreshRequestDTO;
 import com.rafaelcabanillas.sweeties.dto.RegisterRequestDTO;
-import com.rafaelcabanillas.sweeties.model.RefreshToken;
 import com.rafaelcabanillas.sweeties.model.User;
 import com.rafaelcabanillas.sweeties.model.User.Role;
 import com.rafaelcabanillas.sweeties.repository.UserRepository;
+import com.rafaelcabanillas.sweeties.service.DashboardCounters;
 import com.rafaelcabanillas.sweeties.service.RefreshTokenService;
 import com.rafaelcabanillas.sweeties.util.JwtUtil;
 import com.rafaelcabanillas.sweeties.exception.TokenRefreshException;
@@ -29,6 +29,7 @@ public class AuthController {
     private final RefreshTokenService refreshTokenService;
     private final JwtUtil jwtUtil;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final DashboardCounters dashboardCounters;
 
     // -------------------- LOGIN --------------------
     @PostMapping(value = "/login", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -46,11 +47,11 @@ public class AuthController {
         }
 
         String accessToken = jwtUtil.generateToken(user);
-        RefreshToken refreshToken = refreshTokenService.createToken(user, 60 * 24 * 7); // 7 days
+        RefreshTokenService.IssuedToken refreshToken = refreshTokenService.createToken(user, 60 * 24 * 7); // 7 days
 
         return ResponseEntity.ok(AuthResponseDTO.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken.getToken())
+                .refreshToken(refreshToken.token())
                 .role(user.getRole().name())
                 .build());
     }
@@ -86,14 +87,15 @@ public class AuthController {
                 .build();
 
         userRepository.save(user);
+        dashboardCounters.userCreated();
 
         String accessToken = jwtUtil.generateToken(user);
-        RefreshToken refreshToken = refreshTokenService.createToken(user, 60 * 24 * 7);
+        RefreshTokenService.IssuedToken refreshToken = refreshTokenService.createToken(user, 60 * 24 * 7);
 
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(AuthResponseDTO.builder()
                         .accessToken(accessToken)
-                        .refreshToken(refreshToken.getToken())
+                        .refreshToken(refreshToken.token())
                         .role(user.getRole().name())
                         .build());
     }
@@ -104,17 +106,17 @@ public class AuthController {
 
         try {
             // 1. Call the single service method
-            RefreshToken newRefreshToken = refreshTokenService.rotateToken(req.getRefreshToken());
+            RefreshTokenService.IssuedToken newRefreshToken = refreshTokenService.rotateToken(req.getRefreshToken());
 
             // 2. Get the user from the result
-            User user = newRefreshToken.getUser();
+            User user = newRefreshToken.user();
 
             // 3. Generate the new access token
             String newAccessToken = jwtUtil.generateToken(user);
 
             return ResponseEntity.ok(AuthResponseDTO.builder()
                     .accessToken(newAccessToken)
-                    .refreshToken(newRefreshToken.getToken())
+                    .refreshToken(newRefreshToken.token())
                     .role(user.getRole().name())
                     .build());
         } catch (TokenRefreshException e) {
@@ -1,12 +1,19 @@
 package com.rafaelcabanillas.sweeties.controller;
 
 import com.rafaelcabanillas.sweeties.dto.DashboardStatsDTO;
+import com.rafaelcabanillas.sweeties.dto.ProductSalesDTO;
+import com.rafaelcabanillas.sweeties.dto.SalesSeriesDTO;
 import com.rafaelcabanillas.sweeties.service.DashboardService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/dashboard")
 @RequiredArgsConstructor
@@ -19,4 +26,33 @@ public class DashboardController {
     public ResponseEntity<DashboardStatsDTO> getStats() {
         return ResponseEntity.ok(dashboardService.getStats());
     }
-}
\ No newline at end of file
+
+    /** Revenue/orders per day or month, read from the sales rollups (defaults: last 30 days, DAY). */
+    @GetMapping("/sales")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<SalesSeriesDTO> getSalesSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") String granularity
+    ) {
+        return ResponseEntity.ok(dashboardService.getSalesSeries(from, to, granularity));
+    }
+
+    @GetMapping("/sales/products")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ProductSalesDTO>> getTopProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(dashboardService.getTopProducts(from, to, limit));
+    }
+
+    /** Recomputes the rollups from the full order history. */
+    @PostMapping("/sales/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, String>> rebuildSalesRollups() {
+        dashboardService.rebuildSalesRollups();
+        return ResponseEntity.ok(Map.of("message", "Resumen de ventas reconstruido"));
+    }
+}
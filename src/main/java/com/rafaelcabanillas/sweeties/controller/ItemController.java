@@ -2,14 +2,19 @@ package com.rafaelcabanillas.sweeties.controller;
 
 import com.rafaelcabanillas.sweeties.dto.CreateItemDTO;
 import com.rafaelcabanillas.sweeties.dto.ItemDTO;
+import com.rafaelcabanillas.sweeties.dto.ItemPageDTO;
 import com.rafaelcabanillas.sweeties.dto.UpdateItemDTO;
 import com.rafaelcabanillas.sweeties.service.ItemService;
 import com.rafaelcabanillas.sweeties.util.CloudinaryService;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions.Resource;
+import com.rafaelcabanillas.sweeties.util.SerializedResponseCache;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -23,17 +28,40 @@ public class ItemController {
 
     private final ItemService itemService;
     private final CloudinaryService cloudinaryService;
+    private final ResourceVersions resourceVersions;
+    private final SerializedResponseCache responseCache;
 
     /* ------------------------- PUBLIC READ ------------------------- */
 
+    // Serialized once per catalog version, see SerializedResponseCache
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<ItemDTO>> getAllItems() {
-        return ResponseEntity.ok(itemService.getAllItems());
+    public ResponseEntity<byte[]> getAllItems(WebRequest request) {
+        return responseCache.get(request, Resource.CATALOG, "items", itemService::getAllItems);
+    }
+
+    @GetMapping(value = "/featured", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getFeaturedItems(WebRequest request) {
+        return responseCache.get(request, Resource.CATALOG, "items-featured", itemService::getFeaturedItems);
+    }
+
+    @GetMapping(value = "/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ItemPageDTO> getCatalogPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "24") int limit,
+            @RequestParam(required = false) Boolean visible,
+            @RequestParam(required = false) Boolean featured,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String material
+    ) {
+        return ResponseEntity.ok(itemService.getCatalogPage(
+                cursor, limit, visible, featured, minPrice, maxPrice, material
+        ));
     }
 
     @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ItemDTO> getItemById(@PathVariable Long id) {
-        return ResponseEntity.ok(itemService.getItemById(id));
+    public ResponseEntity<ItemDTO> getItemById(@PathVariable Long id, WebRequest request) {
+        return resourceVersions.conditionalGet(request, Resource.CATALOG, () -> itemService.getItemById(id));
     }
 
     /* ------------------------- ADMIN WRITE ------------------------- */
@@ -48,41 +76,40 @@ public class ItemController {
 
         ensureImage(mainImage);
 
-        // --- main image ---
+        // keep only non-empty image parts
+        List<MultipartFile> cleanSprites = new ArrayList<>();
+        if (sprites != null) {
+            for (MultipartFile f : sprites) {
+                if (f != null && !f.isEmpty()) {
+                    ensureImage(f);
+                    cleanSprites.add(f);
+                }
+            }
+        }
+
+        // main image + sprites go up together; a failed upload rolls back the others
         String mainPublicId = "item_" + safeSlug(itemDTO.getName()) + "_" + System.currentTimeMillis();
-        Map<String, Object> mainUpload;
+        List<CloudinaryService.Upload> uploads = new ArrayList<>(1 + cleanSprites.size());
+        uploads.add(new CloudinaryService.Upload(mainImage, "sweeties-crochet/items", mainPublicId));
+        for (MultipartFile f : cleanSprites) {
+            uploads.add(new CloudinaryService.Upload(f, "sweeties-crochet/items", cloudinaryService.buildPublicId("sprite")));
+        }
+
+        List<Map<String, Object>> ups;
         try {
-            mainUpload = cloudinaryService.uploadFile(mainImage, "sweeties-crochet/items", mainPublicId);
+            ups = cloudinaryService.uploadAll(uploads);
         } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Cloudinary upload (image) failed: " + e.getMessage(), e);
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Cloudinary upload failed: " + e.getMessage(), e);
         }
-        String imageUrl = Objects.toString(mainUpload.get("secure_url"), null);
-        String imagePublicId = Objects.toString(mainUpload.get("public_id"), null);
+        String imageUrl = Objects.toString(ups.get(0).get("secure_url"), null);
+        String imagePublicId = Objects.toString(ups.get(0).get("public_id"), null);
 
         // --- sprites (optional) ---
         List<String> spriteUrls = new ArrayList<>();
         List<String> spritePublicIds = new ArrayList<>();
-        if (sprites != null && !sprites.isEmpty()) {
-            // keep only non-empty image parts
-            List<MultipartFile> cleanSprites = new ArrayList<>();
-            for (MultipartFile f : sprites) {
-                if (f != null && !f.isEmpty()) {
-                    ensureImage(f);
-                    cleanSprites.add(f);
-                }
-            }
-            if (!cleanSprites.isEmpty()) {
-                List<Map<String, Object>> ups;
-                try {
-                    ups = cloudinaryService.uploadFiles(cleanSprites, "sweeties-crochet/items", "sprite");
-                } catch (Exception e) {
-                    throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Cloudinary upload (sprites) failed: " + e.getMessage(), e);
-                }
-                for (Map<String, Object> m : ups) {
-                    spriteUrls.add(Objects.toString(m.get("secure_url"), null));
-                    spritePublicIds.add(Objects.toString(m.get("public_id"), null));
-                }
-            }
+        for (Map<String, Object> m : ups.subList(1, ups.size())) {
+            spriteUrls.add(Objects.toString(m.get("secure_url"), null));
+            spritePublicIds.add(Objects.toString(m.get("public_id"), null));
         }
 
         // pass MUTABLE lists to service
@@ -2,6 +2,7 @@ package com.rafaelcabanillas.sweeties.controller;
 
 import com.rafaelcabanillas.sweeties.dto.CreateOrderDTO;
 import com.rafaelcabanillas.sweeties.dto.OrderDTO;
+import com.rafaelcabanillas.sweeties.service.OrderIdempotency;
 import com.rafaelcabanillas.sweeties.service.OrderService;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
@@ -24,13 +25,23 @@ import java.util.Map;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderIdempotency orderIdempotency;
 
     // ------- PUBLIC CHECKOUT -------
+    // With an Idempotency-Key, retries of the same checkout get the original response back
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Map<String, Object>> createOrder(@Valid @RequestBody CreateOrderDTO dto) {
-        OrderDTO saved = orderService.createOrder(dto);
+    public ResponseEntity<Map<String, Object>> createOrder(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody CreateOrderDTO dto) {
+        if (idempotencyKey == null) {
+            OrderDTO saved = orderService.createOrder(dto);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(Map.of("orderId", saved.getId(), "message", "Pedido recibido"));
+        }
+        OrderIdempotency.Result result = orderIdempotency.createOrder(idempotencyKey, dto);
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(Map.of("orderId", saved.getId(), "message", "Pedido recibido"));
+                .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                .body(Map.of("orderId", result.orderId(), "message", "Pedido recibido"));
     }
 
     // ------- ADMIN MANAGEMENT -------
@@ -65,10 +76,16 @@ public class OrderController {
 
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping(value = "/export", produces = "text/csv")
-    public void exportOrders(HttpServletResponse response) throws IOException {
+    public void exportOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            HttpServletResponse response
+    ) throws IOException {
         response.setContentType("text/csv");
+        response.setCharacterEncoding("UTF-8");
         response.setHeader("Content-Disposition", "attachment; filename=orders.csv");
-        orderService.exportOrdersAsCsv(response.getWriter());
+        orderService.exportOrdersAsCsv(status, from, to, response.getWriter());
     }
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -3,11 +3,14 @@ package com.rafaelcabanillas.sweeties.controller;
 import com.rafaelcabanillas.sweeties.dto.ThemeDTO;
 import com.rafaelcabanillas.sweeties.dto.UserDTO;
 import com.rafaelcabanillas.sweeties.service.ThemeService;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions.Resource;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -18,14 +21,15 @@ import java.util.Map;
 public class ThemeController {
 
     private final ThemeService themeService;
+    private final ResourceVersions resourceVersions;
 
     /**
      * GET /api/themes
      * Public endpoint to get all available themes
      */
     @GetMapping
-    public ResponseEntity<List<ThemeDTO>> getAllThemes() {
-        return ResponseEntity.ok(themeService.getAllThemes());
+    public ResponseEntity<List<ThemeDTO>> getAllThemes(WebRequest request) {
+        return resourceVersions.conditionalGet(request, Resource.THEMES, themeService::getAllThemes);
     }
 
     /**
@@ -0,0 +1,16 @@
+package com.rafaelcabanillas.sweeties.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ItemPageDTO {
+    private List<ItemDTO> items;
+    // Pass back as ?cursor= to fetch the next page; null when this is the last one
+    private Long nextCursor;
+    private boolean hasMore;
+}
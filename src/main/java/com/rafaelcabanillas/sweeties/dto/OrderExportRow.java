@@ -0,0 +1,24 @@
+package com.rafaelcabanillas.sweeties.dto;
+
+import com.rafaelcabanillas.sweeties.model.Order;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Flat projection used by the CSV export; selected directly by JPQL so that
+ * neither Order entities nor their order_items collection are loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderExportRow {
+    private Long id;
+    private String name;
+    private String email;
+    private String phone;
+    private Double total;
+    private Order.OrderStatus status;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime updatedAt;
+}
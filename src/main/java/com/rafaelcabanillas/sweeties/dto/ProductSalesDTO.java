@@ -0,0 +1,23 @@
+package com.rafaelcabanillas.sweeties.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesDTO {
+    private String productId;
+    private long units;
+    private Double revenue;
+
+    // JPQL constructor expression target (SUM over NUMERIC comes back as BigDecimal)
+    public ProductSalesDTO(String productId, Long units, BigDecimal revenue) {
+        this.productId = productId;
+        this.units = units != null ? units : 0L;
+        this.revenue = revenue != null ? revenue.doubleValue() : 0.0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.rafaelcabanillas.sweeties.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SalesPointDTO {
+    private String bucket;          // first day of the day/month bucket, yyyy-MM-dd
+    private long orderCount;
+    private Double revenue;
+    private long units;
+    private long pendingCount;
+    private long shippedCount;
+    private long deliveredCount;
+}
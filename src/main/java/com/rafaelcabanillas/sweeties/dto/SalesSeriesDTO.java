@@ -0,0 +1,15 @@
+package com.rafaelcabanillas.sweeties.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class SalesSeriesDTO {
+    private String granularity;
+    private String from;
+    private String to;
+    private List<SalesPointDTO> points;     // one per bucket in range, zero-filled
+}
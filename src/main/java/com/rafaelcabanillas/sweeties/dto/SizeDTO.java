@@ -6,7 +6,7 @@ import lombok.*;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class SizeDTO {
     @Min(0) private Double alto;
     @Min(0) private Double ancho;
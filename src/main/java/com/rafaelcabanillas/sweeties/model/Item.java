@@ -3,6 +3,8 @@ package com.rafaelcabanillas.sweeties.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -34,7 +36,11 @@ public class Item {
 
     private String imagePublicId;
 
+    // SUBSELECT: a list query loads each collection for all returned items in one extra select,
+    // so reading the catalog costs 1 + 4 statements regardless of its size. The subselect repeats the
+    // list query's WHERE but drops its ORDER BY/LIMIT, so paged reads load their rows by id first
     @ElementCollection(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SUBSELECT)
     @CollectionTable(
             name = "item_materials",
             joinColumns = @JoinColumn(name = "item_id")
@@ -44,17 +50,20 @@ public class Item {
     private List<String> materials = new ArrayList<>();
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SUBSELECT)
     @CollectionTable(name = "item_sizes", joinColumns = @JoinColumn(name = "item_id"))
     @Builder.Default
     private List<Size> size = new ArrayList<>();
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SUBSELECT)
     @CollectionTable(name = "item_sprites", joinColumns = @JoinColumn(name = "item_id"))
     @Column(name = "sprite_url")
     @Builder.Default
     private List<String> sprites = new ArrayList<>();
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SUBSELECT)
     @CollectionTable(name = "item_sprite_public_ids", joinColumns = @JoinColumn(name = "item_id"))
     @Column(name = "sprite_public_id")
     @Builder.Default
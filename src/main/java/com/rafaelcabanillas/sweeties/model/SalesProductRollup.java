@@ -0,0 +1,41 @@
+package com.rafaelcabanillas.sweeties.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "sales_product_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesProductRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Builder.Default
+    private long units = 0;
+
+    @Column(precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Enumerated(EnumType.STRING)
+        @Column(length = 5)
+        private SalesRollup.Granularity granularity;
+
+        private LocalDate bucketStart;
+
+        private String productId;
+    }
+}
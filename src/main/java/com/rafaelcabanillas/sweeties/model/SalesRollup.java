@@ -0,0 +1,56 @@
+package com.rafaelcabanillas.sweeties.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "sales_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Builder.Default
+    private long orderCount = 0;
+
+    @Column(precision = 14, scale = 2)
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Builder.Default
+    private long units = 0;
+
+    @Column(name = "pendiente_count")
+    @Builder.Default
+    private long pendingCount = 0;
+
+    @Column(name = "enviado_count")
+    @Builder.Default
+    private long shippedCount = 0;
+
+    @Column(name = "entregado_count")
+    @Builder.Default
+    private long deliveredCount = 0;
+
+    public enum Granularity { DAY, MONTH }
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Enumerated(EnumType.STRING)
+        @Column(length = 5)
+        private Granularity granularity;
+
+        private LocalDate bucketStart;
+    }
+}
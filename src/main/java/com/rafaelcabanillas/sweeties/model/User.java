@@ -1,6 +1,5 @@
 package com.rafaelcabanillas.sweeties.model;
 
-import com.rafaelcabanillas.sweeties.model.Theme;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
@@ -45,7 +44,7 @@ public class User {
 
     public enum Role { ADMIN, EDITOR, VIEWER, GUEST }
 
-    @ManyToOne(fetch = FetchType.EAGER)
-    @JoinColumn(name = "theme_id")
-    private Theme theme;
+    // Plain id: themes are resolved from ThemeRegistry, so loading a user never touches themes
+    @Column(name = "theme_id")
+    private Long themeId;
 }
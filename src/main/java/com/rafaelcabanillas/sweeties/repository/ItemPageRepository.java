@@ -0,0 +1,16 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import com.rafaelcabanillas.sweeties.model.Item;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface ItemPageRepository {
+
+    /**
+     * Ids of the first {@code limit} items matching {@code spec}, newest first. Only ids:
+     * the entities are loaded afterwards by id, so their subselect-fetched collections
+     * cover the page and not every item the filter matches.
+     */
+    List<Long> findPageIds(Specification<Item> spec, int limit);
+}
@@ -0,0 +1,30 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import com.rafaelcabanillas.sweeties.model.Item;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class ItemPageRepositoryImpl implements ItemPageRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findPageIds(Specification<Item> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Item> root = query.from(Item.class);
+        query.select(root.get("id"));
+        Predicate where = spec.toPredicate(root, query, cb);
+        if (where != null) query.where(where);
+        query.orderBy(cb.desc(root.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
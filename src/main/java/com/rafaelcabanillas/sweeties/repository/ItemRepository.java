@@ -2,11 +2,26 @@ package com.rafaelcabanillas.sweeties.repository;
 
 import com.rafaelcabanillas.sweeties.model.Item;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findByIsVisibleTrueOrderByIdDesc();
-    List<Item> findByIsFeaturedTrueAndIsVisibleTrueOrderByIdDesc();
-    List<Item> findTop8ByIsVisibleTrueOrderByIdDesc();
+public interface ItemRepository extends JpaRepository<Item, Long>, JpaSpecificationExecutor<Item>, ItemPageRepository {
+    /**
+     * Catalog read path: the items plus their four element collections in 5 statements
+     * (collections are subselect-fetched, see {@link Item}).
+     */
+    @Query("SELECT i FROM Item i ORDER BY i.id DESC")
+    List<Item> findCatalog();
+
+    /** One catalog page by id (see {@link ItemPageRepository#findPageIds}): 1 + 4 statements. */
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id DESC")
+    List<Item> findAllByIdNewestFirst(@Param("ids") Collection<Long> ids);
+
+    /** id, price, isVisible for every item, ordered by id; feeds the checkout price index. */
+    @Query("SELECT i.id, i.price, i.isVisible FROM Item i ORDER BY i.id")
+    List<Object[]> findPriceRows();
 }
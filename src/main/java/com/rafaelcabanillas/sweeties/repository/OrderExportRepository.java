@@ -0,0 +1,16 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import com.rafaelcabanillas.sweeties.dto.OrderExportRow;
+import com.rafaelcabanillas.sweeties.model.Order;
+
+import java.time.OffsetDateTime;
+import java.util.stream.Stream;
+
+public interface OrderExportRepository {
+
+    /**
+     * Forward-only stream of export rows, newest first. Null filters are ignored.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    Stream<OrderExportRow> streamForExport(Order.OrderStatus status, OffsetDateTime from, OffsetDateTime to, int fetchSize);
+}
@@ -0,0 +1,28 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import com.rafaelcabanillas.sweeties.model.OrderIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+
+public interface OrderIdempotencyKeyRepository extends JpaRepository<OrderIdempotencyKey, String> {
+
+    /**
+     * Claims the key for an order; returns 0 when another request already holds it.
+     * A concurrent claim on the same key blocks on the row until the holder commits.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO order_idempotency_keys (idem_key, request_hash, order_id, created_at) " +
+            "VALUES (:key, :hash, :orderId, :createdAt) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("hash") String hash,
+              @Param("orderId") Long orderId,
+              @Param("createdAt") OffsetDateTime createdAt);
+
+    @Modifying
+    @Query("DELETE FROM OrderIdempotencyKey k WHERE k.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") OffsetDateTime cutoff);
+}
@@ -5,10 +5,14 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 import java.time.OffsetDateTime;
+import java.util.stream.Stream;
 
-public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderExportRepository {
 
     long countByStatus(Order.OrderStatus status);
 
@@ -17,4 +21,17 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
 
     Page<Order> findByStatus(Order.OrderStatus status, Pageable pageable);
 
+    /**
+     * One row per order line (a single row with null line columns for an order without
+     * items), ordered by order id: id, createdAt, status, total, productId, quantity, price.
+     * Feeds the sales rollup backfill from a cursor.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o.id, o.createdAt, o.status, o.total, i.productId, i.quantity, i.price " +
+            "FROM Order o LEFT JOIN o.items i ORDER BY o.id")
+    Stream<Object[]> streamOrderLines();
+
 }
@@ -1,11 +1,28 @@
 package com.rafaelcabanillas.sweeties.repository;
 
 import com.rafaelcabanillas.sweeties.model.RefreshToken;
+import com.rafaelcabanillas.sweeties.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.Optional;
 
-public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
-    void deleteByToken(String token);
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long>, RefreshTokenRotationRepository {
+
+    /** The token's user if the token exists and has not expired. */
+    @Query("SELECT t.user FROM RefreshToken t WHERE t.tokenHash = :hash AND t.expiresAt > :now")
+    Optional<User> findUserByValidToken(@Param("hash") String hash, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.tokenHash = :hash")
+    int deleteByTokenHash(@Param("hash") String hash);
+
+    /** Deletes up to {@code limit} expired tokens; callers loop until it returns less than the limit. */
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN " +
+            "(SELECT id FROM refresh_tokens WHERE expires_at < :now ORDER BY expires_at LIMIT :limit)", nativeQuery = true)
+    int deleteExpiredChunk(@Param("now") OffsetDateTime now, @Param("limit") int limit);
 }
@@ -0,0 +1,15 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+public interface RefreshTokenRotationRepository {
+
+    /**
+     * Swaps a live token for a new one in place and returns its user's id, in one round
+     * trip ({@code UPDATE ... RETURNING user_id} on PostgreSQL). Empty if the old token is
+     * unknown, expired or was already rotated: two concurrent rotations of the same token
+     * serialize on the row, and the second one matches nothing.
+     */
+    Optional<Long> rotate(String oldHash, String newHash, OffsetDateTime expiresAt, OffsetDateTime now);
+}
@@ -0,0 +1,41 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+public class RefreshTokenRotationRepositoryImpl implements RefreshTokenRotationRepository {
+
+    private static final String ROTATE =
+            "UPDATE refresh_tokens SET token_hash = ?, expires_at = ?, created_at = ? " +
+            "WHERE token_hash = ? AND expires_at > ?";
+    // Asked for as a generated key: the PostgreSQL driver appends RETURNING "user_id", and H2 (tests) supports it natively
+    private static final String[] RETURNED_COLUMNS = {"user_id"};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Long> rotate(String oldHash, String newHash, OffsetDateTime expiresAt, OffsetDateTime now) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement rotate = connection.prepareStatement(ROTATE, RETURNED_COLUMNS)) {
+                rotate.setString(1, newHash);
+                rotate.setObject(2, expiresAt);
+                rotate.setObject(3, now);
+                rotate.setString(4, oldHash);
+                rotate.setObject(5, now);
+                if (rotate.executeUpdate() == 0) {
+                    return Optional.empty();
+                }
+                try (ResultSet keys = rotate.getGeneratedKeys()) {
+                    return keys.next() ? Optional.of(keys.getLong(1)) : Optional.empty();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import com.rafaelcabanillas.sweeties.dto.ProductSalesDTO;
+import com.rafaelcabanillas.sweeties.model.SalesProductRollup;
+import com.rafaelcabanillas.sweeties.model.SalesRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesProductRollupRepository extends JpaRepository<SalesProductRollup, SalesProductRollup.Key> {
+
+    /**
+     * Best sellers over a range split into whole months (MONTH rows) and the partial
+     * months at either edge (DAY rows); an empty edge is passed as an inverted range.
+     */
+    @Query("SELECT new com.rafaelcabanillas.sweeties.dto.ProductSalesDTO(r.id.productId, SUM(r.units), SUM(r.revenue)) " +
+            "FROM SalesProductRollup r WHERE " +
+            "(r.id.granularity = com.rafaelcabanillas.sweeties.model.SalesRollup.Granularity.DAY " +
+            "  AND r.id.bucketStart BETWEEN :headFrom AND :headTo) " +
+            "OR (r.id.granularity = com.rafaelcabanillas.sweeties.model.SalesRollup.Granularity.MONTH " +
+            "  AND r.id.bucketStart BETWEEN :monthFrom AND :monthTo) " +
+            "OR (r.id.granularity = com.rafaelcabanillas.sweeties.model.SalesRollup.Granularity.DAY " +
+            "  AND r.id.bucketStart BETWEEN :tailFrom AND :tailTo) " +
+            "GROUP BY r.id.productId ORDER BY SUM(r.units) DESC, r.id.productId")
+    List<ProductSalesDTO> topProducts(@Param("headFrom") LocalDate headFrom, @Param("headTo") LocalDate headTo,
+                                      @Param("monthFrom") LocalDate monthFrom, @Param("monthTo") LocalDate monthTo,
+                                      @Param("tailFrom") LocalDate tailFrom, @Param("tailTo") LocalDate tailTo,
+                                      Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM SalesProductRollup r")
+    int deleteAllRows();
+}
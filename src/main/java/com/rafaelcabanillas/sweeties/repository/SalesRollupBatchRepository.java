@@ -0,0 +1,24 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import com.rafaelcabanillas.sweeties.model.SalesRollup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesRollupBatchRepository {
+
+    record BucketDelta(SalesRollup.Granularity granularity, LocalDate bucketStart, long orders,
+                       BigDecimal revenue, long units, long pending, long shipped, long delivered) {}
+
+    record ProductDelta(SalesRollup.Granularity granularity, LocalDate bucketStart, String productId,
+                        long units, BigDecimal revenue) {}
+
+    /**
+     * Adds the deltas to their rollup rows, creating missing rows first. Runs in the
+     * caller's transaction as JDBC batches: two round trips per non-empty list, however
+     * many buckets or products an order touches. Rows are written in list order, so
+     * callers pass them sorted to keep a consistent lock order.
+     */
+    void applyDeltas(List<BucketDelta> buckets, List<ProductDelta> products);
+}
@@ -0,0 +1,78 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+public class SalesRollupBatchRepositoryImpl implements SalesRollupBatchRepository {
+
+    // ON CONFLICT DO NOTHING never fails on a concurrent insert, so the UPDATE below always finds its row
+    private static final String ENSURE_BUCKET =
+            "INSERT INTO sales_rollups (granularity, bucket_start, order_count, revenue, units, " +
+            "pendiente_count, enviado_count, entregado_count) VALUES (?, ?, 0, 0, 0, 0, 0, 0) ON CONFLICT DO NOTHING";
+    // In-place increments: concurrent orders on the same bucket serialize on the row lock instead of losing updates
+    private static final String BUMP_BUCKET =
+            "UPDATE sales_rollups SET order_count = order_count + ?, revenue = revenue + ?, units = units + ?, " +
+            "pendiente_count = pendiente_count + ?, enviado_count = enviado_count + ?, entregado_count = entregado_count + ? " +
+            "WHERE granularity = ? AND bucket_start = ?";
+    private static final String ENSURE_PRODUCT =
+            "INSERT INTO sales_product_rollups (granularity, bucket_start, product_id, units, revenue) " +
+            "VALUES (?, ?, ?, 0, 0) ON CONFLICT DO NOTHING";
+    private static final String BUMP_PRODUCT =
+            "UPDATE sales_product_rollups SET units = units + ?, revenue = revenue + ? " +
+            "WHERE granularity = ? AND bucket_start = ? AND product_id = ?";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void applyDeltas(List<BucketDelta> buckets, List<ProductDelta> products) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            if (!buckets.isEmpty()) {
+                try (PreparedStatement ensure = connection.prepareStatement(ENSURE_BUCKET);
+                     PreparedStatement bump = connection.prepareStatement(BUMP_BUCKET)) {
+                    for (BucketDelta d : buckets) {
+                        ensure.setString(1, d.granularity().name());
+                        ensure.setObject(2, d.bucketStart());
+                        ensure.addBatch();
+
+                        bump.setLong(1, d.orders());
+                        bump.setBigDecimal(2, d.revenue());
+                        bump.setLong(3, d.units());
+                        bump.setLong(4, d.pending());
+                        bump.setLong(5, d.shipped());
+                        bump.setLong(6, d.delivered());
+                        bump.setString(7, d.granularity().name());
+                        bump.setObject(8, d.bucketStart());
+                        bump.addBatch();
+                    }
+                    ensure.executeBatch();
+                    bump.executeBatch();
+                }
+            }
+            if (!products.isEmpty()) {
+                try (PreparedStatement ensure = connection.prepareStatement(ENSURE_PRODUCT);
+                     PreparedStatement bump = connection.prepareStatement(BUMP_PRODUCT)) {
+                    for (ProductDelta d : products) {
+                        ensure.setString(1, d.granularity().name());
+                        ensure.setObject(2, d.bucketStart());
+                        ensure.setString(3, d.productId());
+                        ensure.addBatch();
+
+                        bump.setLong(1, d.units());
+                        bump.setBigDecimal(2, d.revenue());
+                        bump.setString(3, d.granularity().name());
+                        bump.setObject(4, d.bucketStart());
+                        bump.setString(5, d.productId());
+                        bump.addBatch();
+                    }
+                    ensure.executeBatch();
+                    bump.executeBatch();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,23 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import com.rafaelcabanillas.sweeties.model.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollup.Key>, SalesRollupBatchRepository {
+
+    @Query("SELECT r FROM SalesRollup r WHERE r.id.granularity = :granularity " +
+            "AND r.id.bucketStart BETWEEN :from AND :to ORDER BY r.id.bucketStart")
+    List<SalesRollup> findRange(@Param("granularity") SalesRollup.Granularity granularity,
+                                @Param("from") LocalDate from,
+                                @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM SalesRollup r")
+    int deleteAllRows();
+}
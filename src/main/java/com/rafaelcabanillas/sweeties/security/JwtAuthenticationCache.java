@@ -0,0 +1,119 @@
+package com.rafaelcabanillas.sweeties.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.rafaelcabanillas.sweeties.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves bearer tokens to an {@link Authentication}, verifying each distinct token once.
+ * Verified tokens are kept by SHA-256 digest (the raw token is never stored) and each entry
+ * expires at the token's own {@code exp}, so a cached token is never accepted past its lifetime.
+ * Hit/miss/eviction counts are published as {@code cache.*} meters tagged {@code cache=jwt}.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    // Immutable once built, safe to share across request threads
+    private final JwtParser parser;
+    private final Cache<ByteBuffer, CachedAuthentication> cache;
+
+    private record CachedAuthentication(Authentication authentication, long expiresAtMillis) {}
+
+    public JwtAuthenticationCache(JwtUtil jwtUtil,
+                                  MeterRegistry registry,
+                                  @Value("${sweeties.cache.jwt.max-size:10000}") long maxSize) {
+        this.parser = Jwts.parserBuilder().setSigningKey(jwtUtil.signingKey()).build();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<ByteBuffer, CachedAuthentication>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, CachedAuthentication value, long currentTime) {
+                        long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, CachedAuthentication value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, CachedAuthentication value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "jwt");
+    }
+
+    /**
+     * @throws JwtException if the token is malformed, expired or not signed with our key
+     */
+    public Authentication resolve(String jwt) {
+        ByteBuffer key = digest(jwt);
+        CachedAuthentication cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.authentication();
+        }
+
+        Claims claims = parser.parseClaimsJws(jwt).getBody();
+        Authentication auth = new UsernamePasswordAuthenticationToken(
+                claims.getSubject(), null, authorities(claims.get("roles")));
+        // Tokens without exp are still accepted by the parser, but are not worth pinning in memory
+        if (claims.getExpiration() != null) {
+            cache.put(key, new CachedAuthentication(auth, claims.getExpiration().getTime()));
+        }
+        return auth;
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private static List<GrantedAuthority> authorities(Object roles) {
+        if (roles instanceof String roleStr) {
+            return List.of(new SimpleGrantedAuthority("ROLE_" + roleStr));
+        }
+        if (roles instanceof Collection<?> coll) {
+            List<GrantedAuthority> authorities = new ArrayList<>(coll.size());
+            for (Object role : coll) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+            }
+            return List.copyOf(authorities);
+        }
+        return List.of();
+    }
+
+    private static ByteBuffer digest(String jwt) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(sha256.digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
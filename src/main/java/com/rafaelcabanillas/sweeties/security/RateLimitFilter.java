@@ -0,0 +1,79 @@
+package com.rafaelcabanillas.sweeties.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the public write endpoints per client IP, as configured under
+ * {@code sweeties.rate-limit.routes}. Requests over budget get 429 with
+ * {@code Retry-After}; every other request passes through after one map lookup.
+ * Runs inside the security chain right after CORS, so browsers can read the 429.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private record Limit(String name, TokenBucketLimiter limiter, Counter rejected) {}
+
+    private final boolean enabled;
+    // method -> servlet path -> limit; two lookups, no per-request allocation
+    private final Map<String, Map<String, Limit>> limits = new HashMap<>();
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry registry) {
+        this.enabled = properties.enabled();
+        if (properties.routes() != null) {
+            properties.routes().forEach((name, route) -> limits
+                    .computeIfAbsent(route.method().toUpperCase(), m -> new HashMap<>())
+                    .put(route.path(), new Limit(name,
+                            new TokenBucketLimiter(route.capacity(), route.period(),
+                                    properties.maxClients(), properties.idleEviction()),
+                            Counter.builder("sweeties.ratelimit.rejected").tag("route", name).register(registry))));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || limitFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        Limit limit = limitFor(req);
+        long waitNanos = limit.limiter().tryAcquire(req.getRemoteAddr());
+        if (waitNanos == 0) {
+            chain.doFilter(req, res);
+            return;
+        }
+
+        limit.rejected().increment();
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        log.debug("Rate limit {} hit by {}; retry in {}s", limit.name(), req.getRemoteAddr(), retryAfter);
+        res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        res.setCharacterEncoding("UTF-8");
+        res.getWriter().write("{\"error\":\"Too Many Requests\",\"message\":\"Demasiadas solicitudes; intenta de nuevo en "
+                + retryAfter + " segundos\"}");
+    }
+
+    private Limit limitFor(HttpServletRequest request) {
+        Map<String, Limit> byPath = limits.get(request.getMethod());
+        return byPath != null ? byPath.get(request.getServletPath()) : null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.rafaelcabanillas.sweeties.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * {@code sweeties.rate-limit}: per-client request budgets for the public write endpoints.
+ * Each route allows a burst of {@code capacity} requests per client IP, refilled evenly
+ * over {@code period}.
+ */
+@ConfigurationProperties("sweeties.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        // Per route; least recently seen clients are evicted past this
+        @DefaultValue("100000") long maxClients,
+        // A client idle this long is forgotten (its bucket would be full again anyway)
+        @DefaultValue("PT10M") Duration idleEviction,
+        Map<String, Route> routes) {
+
+    public record Route(String method, String path, int capacity, Duration period) {}
+}
@@ -2,28 +2,41 @@ package com.rafaelcabanillas.sweeties.security;
 
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.*;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.*;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.*;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.*;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.*;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.filter.CorsFilter;
 
 import java.util.List;
 
 @Configuration
 @EnableMethodSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final Environment environment;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -45,6 +58,9 @@ public class SecurityConfig {
 
                         .requestMatchers(HttpMethod.GET, "/api/themes").permitAll()
 
+                        // Actuator is only served on the management port (see actuatorAccess)
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).access(actuatorAccess())
+
                         // (Optional) make catalog public:
                         // .requestMatchers(HttpMethod.GET, "/api/items/**").permitAll()
 
@@ -58,11 +74,34 @@ public class SecurityConfig {
                         .authenticationEntryPoint((req, res, e) -> res.sendError(HttpServletResponse.SC_UNAUTHORIZED))
                         .accessDeniedHandler((req, res, e) -> res.sendError(HttpServletResponse.SC_FORBIDDEN))
                 )
+                .addFilterAfter(rateLimitFilter, CorsFilter.class)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * The management server listens on its own port, bound to loopback by
+     * {@code management.server.address}, so whoever reaches it is on this host and
+     * Prometheus scrapes without a token. The client IP is never checked: behind the
+     * proxy it comes from X-Forwarded-For. If actuator is ever moved back onto the
+     * application port, it takes an admin token like the rest of the API.
+     */
+    private AuthorizationManager<RequestAuthorizationContext> actuatorAccess() {
+        if (ManagementPortType.get(environment) == ManagementPortType.DIFFERENT) {
+            return (authentication, context) -> new AuthorizationDecision(true);
+        }
+        return AuthorityAuthorizationManager.hasRole("ADMIN");
+    }
+
+    // Only runs inside the security chain (after CORS), not a second time as a servlet filter
+    @Bean
+    FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     CorsConfigurationSource corsConfigurationSource() {
         var cfg = new CorsConfiguration();
@@ -74,9 +113,9 @@ public class SecurityConfig {
                 "https://sweeties-crochet.vercel.app"
         ));
         cfg.setAllowedMethods(List.of("GET","POST","PUT","PATCH","DELETE","OPTIONS"));
-        cfg.setAllowedHeaders(List.of("Authorization","Content-Type","Accept","Origin"));
+        cfg.setAllowedHeaders(List.of("Authorization","Content-Type","Accept","Origin","Idempotency-Key"));
         // headers that the browser is allowed to read
-        cfg.setExposedHeaders(List.of("Content-Disposition","Authorization"));
+        cfg.setExposedHeaders(List.of("Content-Disposition","Authorization","Idempotent-Replayed"));
         cfg.setAllowCredentials(true);
         cfg.setMaxAge(3600L);
 
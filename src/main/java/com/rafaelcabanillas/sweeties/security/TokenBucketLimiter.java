@@ -0,0 +1,61 @@
+package com.rafaelcabanillas.sweeties.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per client, stored as a single "theoretical arrival time" (GCRA): a
+ * request is allowed when the bucket's next-token time is within the burst window, and
+ * pushes it forward by one emission interval. The state is one {@link AtomicLong}
+ * updated by CAS, so callers never block each other; buckets live in a size-bounded
+ * Caffeine map that forgets idle clients.
+ */
+final class TokenBucketLimiter {
+
+    private final long emissionNanos;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> buckets;
+    // Times are kept relative to this, so a fresh bucket (0) always starts full
+    private final long origin = System.nanoTime();
+
+    TokenBucketLimiter(int capacity, Duration period, long maxClients, Duration idleEviction) {
+        if (capacity < 1 || period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Rate limit needs capacity >= 1 and a positive period");
+        }
+        this.emissionNanos = period.toNanos() / capacity;
+        this.burstNanos = emissionNanos * (capacity - 1);
+        // Evicting earlier than one full period would hand a throttled client a fresh bucket
+        Duration idle = idleEviction.compareTo(period) > 0 ? idleEviction : period;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idle)
+                .build();
+    }
+
+    /** @return 0 if the request may proceed, otherwise nanoseconds until the next token */
+    long tryAcquire(String client) {
+        return tryAcquire(client, System.nanoTime() - origin);
+    }
+
+    long tryAcquire(String client, long now) {
+        AtomicLong tat = buckets.get(client, k -> new AtomicLong());
+        while (true) {
+            long current = tat.get();
+            long base = Math.max(current, now);
+            if (base - now > burstNanos) {
+                return base - now - burstNanos;
+            }
+            if (tat.compareAndSet(current, base + emissionNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    long clients() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
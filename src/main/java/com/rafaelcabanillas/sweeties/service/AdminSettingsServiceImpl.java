@@ -6,10 +6,13 @@ import com.rafaelcabanillas.sweeties.dto.settings.UpdateAdminSettingsDTO;
 import com.rafaelcabanillas.sweeties.exception.ResourceNotFoundException;
 import com.rafaelcabanillas.sweeties.model.AdminSettings;
 import com.rafaelcabanillas.sweeties.repository.AdminSettingsRepository;
+import com.rafaelcabanillas.sweeties.util.AfterCommit;
 import com.rafaelcabanillas.sweeties.util.CloudinaryService;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -17,10 +20,26 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
+/**
+ * Settings reads are served from an in-memory snapshot of the singleton row, already
+ * mapped to both DTOs, so storefront page loads cost no queries. The snapshot is built
+ * from a private copy of the entity and never mutated; {@link #updateAdminSettings}
+ * swaps in a new one after its transaction commits, and a periodic reload picks up
+ * rows changed by another instance or by hand.
+ * <p>
+ * Each snapshot carries a version taken when its data was read; a swap only ever moves
+ * to a higher version, so a reload that read the row before an update committed cannot
+ * replace the update's snapshot. That version only orders swaps; HTTP clients see
+ * changes through {@link ResourceVersions.Resource#PUBLIC_SETTINGS}, bumped on each swap.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -28,10 +47,17 @@ public class AdminSettingsServiceImpl implements AdminSettingsService {
 
     private final AdminSettingsRepository settingsRepository;
     private final CloudinaryService cloudinaryService;
+    private final ResourceVersions resourceVersions;
 
     // The fixed ID for our singleton settings row
     private static final Long SETTINGS_ID = 1L;
 
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    /** Both views of one settings version; the DTOs are shared by every caller and must not be modified. */
+    private record Snapshot(long version, AdminSettingsDTO admin, PublicAdminSettingsDTO publicView) {}
+
     /**
      * Gets the singleton settings object.
      * Throws an exception if the row (ID=1) doesn't exist,
@@ -45,15 +71,48 @@ public class AdminSettingsServiceImpl implements AdminSettingsService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public AdminSettingsDTO getAdminSettings() {
-        return toAdminDTO(getSingletonInstance());
+        return current().admin();
     }
 
     @Override
-    @Transactional(readOnly = true)
     public PublicAdminSettingsDTO getPublicSettings() {
-        return toPublicDTO(getSingletonInstance());
+        return current().publicView();
+    }
+
+    /** Re-reads the row; rows edited outside this instance show up here. */
+    @Scheduled(fixedDelayString = "${sweeties.settings.refresh:PT5M}",
+            initialDelayString = "${sweeties.settings.refresh:PT5M}")
+    public void reload() {
+        long version = versions.incrementAndGet();
+        Snapshot previous = snapshot.get();
+        Snapshot loaded = snapshotOf(version, getSingletonInstance());
+        if (previous != null && previous.admin().equals(loaded.admin())) {
+            return; // unchanged: keep the current version
+        }
+        if (install(loaded) == loaded && previous != null) {
+            resourceVersions.bump(ResourceVersions.Resource.PUBLIC_SETTINGS);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot snap = snapshot.get();
+        if (snap != null) {
+            return snap;
+        }
+        long version = versions.incrementAndGet();
+        return install(snapshotOf(version, getSingletonInstance()));
+    }
+
+    /** Installs {@code candidate} unless a newer snapshot is already in place; returns the one in place. */
+    private Snapshot install(Snapshot candidate) {
+        return snapshot.accumulateAndGet(candidate,
+                (cur, cand) -> cur == null || cand.version() > cur.version() ? cand : cur);
+    }
+
+    private Snapshot snapshotOf(long version, AdminSettings entity) {
+        AdminSettings copy = detachedCopy(entity);
+        return new Snapshot(version, toAdminDTO(copy), toPublicDTO(copy));
     }
 
     @Override
@@ -194,7 +253,13 @@ public class AdminSettingsServiceImpl implements AdminSettingsService {
 
         // --- 3. Save and return ---
         AdminSettings updatedSettings = settingsRepository.save(settings);
-        return toAdminDTO(updatedSettings);
+        AdminSettings copy = detachedCopy(updatedSettings);
+        AfterCommit.run(() -> {
+            // Versioned at commit time: any reload that read the row earlier loses to this one
+            install(new Snapshot(versions.incrementAndGet(), toAdminDTO(copy), toPublicDTO(copy)));
+            resourceVersions.bump(ResourceVersions.Resource.PUBLIC_SETTINGS);
+        });
+        return toAdminDTO(copy);
     }
 
     // --- Mappers ---
@@ -258,6 +323,74 @@ public class AdminSettingsServiceImpl implements AdminSettingsService {
                 .build();
     }
 
+    /**
+     * Deep copy sharing nothing with the managed entity or its persistent collections.
+     * A field added to AdminSettings must be copied here too; the service test fills
+     * every field reflectively and fails on any the copy drops.
+     */
+    static AdminSettings detachedCopy(AdminSettings s) {
+        AdminSettings.About about = s.getAbout();
+        AdminSettings.Social social = s.getSocial();
+        AdminSettings.Features f = s.getFeatures();
+        AdminSettings.Seo seo = s.getSeo();
+        AdminSettings.Visibility v = s.getVisibility();
+        AdminSettings.Home home = s.getHome();
+        AdminSettings.Gallery gallery = s.getGallery();
+        AdminSettings.Footer footer = s.getFooter();
+
+        // Hibernate leaves an embedded object null when all of its columns are null
+        List<AdminSettings.AuxiliaryLink> links = new ArrayList<>();
+        if (footer != null && footer.getAuxiliaryLinks() != null) {
+            for (AdminSettings.AuxiliaryLink link : footer.getAuxiliaryLinks()) {
+                links.add(new AdminSettings.AuxiliaryLink(link.getLabel(), link.getUrl()));
+            }
+        }
+
+        return AdminSettings.builder()
+                .id(s.getId())
+                .siteName(s.getSiteName())
+                .siteTagline(s.getSiteTagline())
+                .logoLightUrl(s.getLogoLightUrl())
+                .logoLightPublicId(s.getLogoLightPublicId())
+                .logoDarkUrl(s.getLogoDarkUrl())
+                .logoDarkPublicId(s.getLogoDarkPublicId())
+                .faviconUrl(s.getFaviconUrl())
+                .faviconPublicId(s.getFaviconPublicId())
+                .contactEmail(s.getContactEmail())
+                .contactPhone(s.getContactPhone())
+                .contactWhatsApp(s.getContactWhatsApp())
+                .contactAddress(s.getContactAddress())
+                .about(about == null ? null
+                        : new AdminSettings.About(about.getBio(), about.getImageUrl(), about.getImagePublicId()))
+                .social(social == null ? null
+                        : new AdminSettings.Social(social.getFacebook(), social.getInstagram(), social.getTiktok(),
+                                social.getYoutube(), social.getThreads(), social.getX()))
+                .features(f == null ? null
+                        : new AdminSettings.Features(f.isEnableOrders(), f.isEnableGallery(), f.isEnableMaterials(),
+                                f.isEnableContactPage(), f.isEnableCart()))
+                .seo(seo == null ? null
+                        : new AdminSettings.Seo(seo.getSiteDescription(), unmodifiableCopy(seo.getMetaKeywords()),
+                                seo.getOgTitle(), seo.getOgDescription(), seo.getOgImageUrl(), seo.getOgImagePublicId()))
+                .visibility(v == null ? null
+                        : new AdminSettings.Visibility(v.isShowEmail(), v.isShowPhone(), v.isShowWhatsApp(),
+                                v.isShowAddress(), v.isShowSocial()))
+                .home(home == null ? null
+                        : new AdminSettings.Home(home.getHeroTitle(), home.getHeroSubtitle(), home.getCreatorName()))
+                .gallery(gallery == null ? null : new AdminSettings.Gallery(gallery.getItemsPerPage()))
+                .footer(footer == null ? null
+                        : new AdminSettings.Footer(footer.getLegalText(), Collections.unmodifiableList(links)))
+                .defaultThemeMode(s.getDefaultThemeMode())
+                .publicThemeGroup(s.getPublicThemeGroup())
+                .adminThemeGroup(s.getAdminThemeGroup())
+                .createdAt(s.getCreatedAt())
+                .updatedAt(s.getUpdatedAt())
+                .build();
+    }
+
+    private static <T> List<T> unmodifiableCopy(List<T> list) {
+        return list != null ? Collections.unmodifiableList(new ArrayList<>(list)) : List.of();
+    }
+
     // --- Helpers ---
 
     /** Helper to update a field only if the new value is not null */
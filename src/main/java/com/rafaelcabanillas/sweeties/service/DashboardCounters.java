@@ -0,0 +1,168 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.model.Order;
+import com.rafaelcabanillas.sweeties.repository.ItemRepository;
+import com.rafaelcabanillas.sweeties.repository.OrderRepository;
+import com.rafaelcabanillas.sweeties.repository.UserRepository;
+import com.rafaelcabanillas.sweeties.util.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory totals behind the admin dashboard, so {@code getStats()} never scans the
+ * orders table. Seeded from the database at startup, moved by the write paths
+ * (deltas are applied after commit, so rolled-back writes never count), and
+ * periodically recomputed from the database to correct any drift.
+ * <p>
+ * Revenue is kept in cents so that an order's total can be added and later subtracted
+ * without floating-point residue.
+ */
+@Component
+@Slf4j
+public class DashboardCounters {
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final OrderRepository orderRepository;
+
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong pendingOrders = new AtomicLong();
+    private final AtomicLong revenueCents = new AtomicLong();
+    // Bumped by every delta; lets reconcile() tell whether a write landed while it was counting
+    private final AtomicLong modifications = new AtomicLong();
+    private volatile boolean seeded;
+    // The scheduled run and a first snapshot() can race; a lock, not a monitor, so a
+    // virtual thread waiting behind four count queries does not hold on to its carrier
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    private final Counter corrections;
+
+    public record Snapshot(long userCount, long itemCount, long pendingOrdersCount, double totalRevenue) {}
+
+    public DashboardCounters(UserRepository userRepository,
+                             ItemRepository itemRepository,
+                             OrderRepository orderRepository,
+                             MeterRegistry registry) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.orderRepository = orderRepository;
+        this.corrections = Counter.builder("sweeties.dashboard.reconcile.corrections").register(registry);
+    }
+
+    public Snapshot snapshot() {
+        if (!seeded) {
+            reconcile();
+        }
+        return new Snapshot(users.get(), items.get(), pendingOrders.get(), revenueCents.get() / 100.0);
+    }
+
+    /* ------------------------- write-path deltas ------------------------- */
+
+    public void userCreated() { afterCommit(users, 1); }
+
+    public void userDeleted() { afterCommit(users, -1); }
+
+    public void itemCreated() { afterCommit(items, 1); }
+
+    public void itemDeleted() { afterCommit(items, -1); }
+
+    public void orderCreated(Order.OrderStatus status, Double total) {
+        AfterCommit.run(() -> {
+            if (status == Order.OrderStatus.PENDIENTE) pendingOrders.incrementAndGet();
+            revenueCents.addAndGet(toCents(total));
+            modifications.incrementAndGet();
+        });
+    }
+
+    public void orderStatusChanged(Order.OrderStatus from, Order.OrderStatus to) {
+        if (from == to) return;
+        AfterCommit.run(() -> {
+            if (from == Order.OrderStatus.PENDIENTE) pendingOrders.decrementAndGet();
+            if (to == Order.OrderStatus.PENDIENTE) pendingOrders.incrementAndGet();
+            modifications.incrementAndGet();
+        });
+    }
+
+    public void orderDeleted(Order.OrderStatus status, Double total) {
+        AfterCommit.run(() -> {
+            if (status == Order.OrderStatus.PENDIENTE) pendingOrders.decrementAndGet();
+            revenueCents.addAndGet(-toCents(total));
+            modifications.incrementAndGet();
+        });
+    }
+
+    /* --------------------------- reconciliation -------------------------- */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reconcile();
+    }
+
+    /**
+     * Recounts from the database and overwrites the counters when they disagree.
+     * If a write commits while the counts are running the result may already be
+     * stale, so it is discarded and the next run tries again.
+     */
+    @Scheduled(fixedDelayString = "${sweeties.dashboard.reconcile-interval:PT5M}",
+            initialDelayString = "${sweeties.dashboard.reconcile-interval:PT5M}")
+    public void reconcile() {
+        reconcileLock.lock();
+        try {
+            long before = modifications.get();
+
+            long userCount = userRepository.count();
+            long itemCount = itemRepository.count();
+            long pendingCount = orderRepository.countByStatus(Order.OrderStatus.PENDIENTE);
+            Double revenue = orderRepository.sumTotalRevenue();
+            long dbRevenueCents = toCents(revenue);
+
+            if (modifications.get() != before) {
+                if (!seeded) {
+                    // Never serve unseeded zeros; a later run will settle the in-between write
+                    store(userCount, itemCount, pendingCount, dbRevenueCents);
+                }
+                log.debug("Dashboard reconcile skipped: writes landed while counting");
+                return;
+            }
+
+            if (seeded && (users.get() != userCount || items.get() != itemCount
+                    || pendingOrders.get() != pendingCount || revenueCents.get() != dbRevenueCents)) {
+                corrections.increment();
+                log.warn("Dashboard counters drifted (users {}->{}, items {}->{}, pending {}->{}, revenueCents {}->{}); corrected",
+                        users.get(), userCount, items.get(), itemCount,
+                        pendingOrders.get(), pendingCount, revenueCents.get(), dbRevenueCents);
+            }
+            store(userCount, itemCount, pendingCount, dbRevenueCents);
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private void store(long userCount, long itemCount, long pendingCount, long dbRevenueCents) {
+        users.set(userCount);
+        items.set(itemCount);
+        pendingOrders.set(pendingCount);
+        revenueCents.set(dbRevenueCents);
+        seeded = true;
+    }
+
+    private void afterCommit(AtomicLong counter, long delta) {
+        AfterCommit.run(() -> {
+            counter.addAndGet(delta);
+            modifications.incrementAndGet();
+        });
+    }
+
+    private static long toCents(Double amount) {
+        return amount != null ? Math.round(amount * 100) : 0L;
+    }
+}
@@ -1,6 +1,17 @@
 package com.rafaelcabanillas.sweeties.service;
 import com.rafaelcabanillas.sweeties.dto.DashboardStatsDTO;
+import com.rafaelcabanillas.sweeties.dto.ProductSalesDTO;
+import com.rafaelcabanillas.sweeties.dto.SalesSeriesDTO;
+
+import java.time.LocalDate;
+import java.util.List;
 
 public interface DashboardService {
     DashboardStatsDTO getStats();
-}
\ No newline at end of file
+
+    SalesSeriesDTO getSalesSeries(LocalDate from, LocalDate to, String granularity);
+
+    List<ProductSalesDTO> getTopProducts(LocalDate from, LocalDate to, int limit);
+
+    void rebuildSalesRollups();
+}
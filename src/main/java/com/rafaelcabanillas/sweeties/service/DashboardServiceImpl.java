@@ -1,28 +1,153 @@
 package com.rafaelcabanillas.sweeties.service;
 
 import com.rafaelcabanillas.sweeties.dto.DashboardStatsDTO;
-import com.rafaelcabanillas.sweeties.model.Order;
-import com.rafaelcabanillas.sweeties.repository.*;
+import com.rafaelcabanillas.sweeties.dto.ProductSalesDTO;
+import com.rafaelcabanillas.sweeties.dto.SalesPointDTO;
+import com.rafaelcabanillas.sweeties.dto.SalesSeriesDTO;
+import com.rafaelcabanillas.sweeties.model.SalesRollup;
+import com.rafaelcabanillas.sweeties.repository.SalesProductRollupRepository;
+import com.rafaelcabanillas.sweeties.repository.SalesRollupRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class DashboardServiceImpl implements DashboardService {
 
-    private final UserRepository userRepository;
-    private final ItemRepository itemRepository;
-    private final OrderRepository orderRepository;
+    // Keeps a DAY series to a chartable size; longer ranges should ask for MONTH
+    private static final long MAX_DAY_BUCKETS = 366;
+    private static final long MAX_MONTH_BUCKETS = 120;
+    private static final int MAX_TOP_PRODUCTS = 100;
+
+    private final DashboardCounters counters;
+    private final SalesRollups salesRollups;
+    private final SalesRollupRepository salesRollupRepository;
+    private final SalesProductRollupRepository salesProductRollupRepository;
 
     @Override
     public DashboardStatsDTO getStats() {
-        Double revenue = orderRepository.sumTotalRevenue();
+        DashboardCounters.Snapshot snapshot = counters.snapshot();
 
         return DashboardStatsDTO.builder()
-                .userCount(userRepository.count())
-                .itemCount(itemRepository.count())
-                .pendingOrdersCount(orderRepository.countByStatus(Order.OrderStatus.PENDIENTE))
-                .totalRevenue(revenue != null ? revenue : 0.0)
+                .userCount(snapshot.userCount())
+                .itemCount(snapshot.itemCount())
+                .pendingOrdersCount(snapshot.pendingOrdersCount())
+                .totalRevenue(snapshot.totalRevenue())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SalesSeriesDTO getSalesSeries(LocalDate from, LocalDate to, String granularity) {
+        SalesRollup.Granularity g = parseGranularity(granularity);
+        LocalDate[] range = normalize(from, to);
+        LocalDate first = SalesRollups.bucketStart(g, range[0]);
+        LocalDate last = SalesRollups.bucketStart(g, range[1]);
+
+        long buckets = g == SalesRollup.Granularity.DAY
+                ? ChronoUnit.DAYS.between(first, last) + 1
+                : ChronoUnit.MONTHS.between(first, last) + 1;
+        long max = g == SalesRollup.Granularity.DAY ? MAX_DAY_BUCKETS : MAX_MONTH_BUCKETS;
+        if (buckets > max) {
+            throw new IllegalArgumentException("El rango es demasiado grande: máximo " + max + " periodos de tipo " + g);
+        }
+
+        Map<LocalDate, SalesRollup> rows = new HashMap<>();
+        for (SalesRollup r : salesRollupRepository.findRange(g, first, last)) {
+            rows.put(r.getId().getBucketStart(), r);
+        }
+
+        // Zero-fill so charts get one point per bucket
+        List<SalesPointDTO> points = new ArrayList<>((int) buckets);
+        for (LocalDate bucket = first; !bucket.isAfter(last);
+             bucket = g == SalesRollup.Granularity.DAY ? bucket.plusDays(1) : bucket.plusMonths(1)) {
+            SalesRollup r = rows.get(bucket);
+            points.add(SalesPointDTO.builder()
+                    .bucket(bucket.toString())
+                    .orderCount(r != null ? r.getOrderCount() : 0)
+                    .revenue(r != null ? r.getRevenue().doubleValue() : 0.0)
+                    .units(r != null ? r.getUnits() : 0)
+                    .pendingCount(r != null ? r.getPendingCount() : 0)
+                    .shippedCount(r != null ? r.getShippedCount() : 0)
+                    .deliveredCount(r != null ? r.getDeliveredCount() : 0)
+                    .build());
+        }
+
+        return SalesSeriesDTO.builder()
+                .granularity(g.name())
+                .from(range[0].toString())
+                .to(range[1].toString())
+                .points(points)
                 .build();
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSalesDTO> getTopProducts(LocalDate from, LocalDate to, int limit) {
+        LocalDate[] range = normalize(from, to);
+        LocalDate start = range[0];
+        LocalDate end = range[1];
+
+        // Whole months inside [start, end] come from MONTH rows, the ragged edges from DAY rows
+        LocalDate firstFullMonth = start.getDayOfMonth() == 1 ? start : start.withDayOfMonth(1).plusMonths(1);
+        LocalDate lastFullMonth = end.equals(end.withDayOfMonth(end.lengthOfMonth()))
+                ? end.withDayOfMonth(1) : end.withDayOfMonth(1).minusMonths(1);
+
+        LocalDate headFrom, headTo, monthFrom, monthTo, tailFrom, tailTo;
+        if (firstFullMonth.isAfter(lastFullMonth)) {
+            // No whole month in range: everything from DAY rows, other branches empty
+            headFrom = start;
+            headTo = end;
+            monthFrom = LocalDate.MAX;
+            monthTo = LocalDate.MIN;
+            tailFrom = LocalDate.MAX;
+            tailTo = LocalDate.MIN;
+        } else {
+            headFrom = start;
+            headTo = firstFullMonth.minusDays(1);
+            monthFrom = firstFullMonth;
+            monthTo = lastFullMonth;
+            tailFrom = lastFullMonth.plusMonths(1);
+            tailTo = end;
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_TOP_PRODUCTS));
+        return salesProductRollupRepository.topProducts(
+                headFrom, headTo, monthFrom, monthTo, tailFrom, tailTo, PageRequest.of(0, size));
+    }
+
+    @Override
+    public void rebuildSalesRollups() {
+        salesRollups.rebuild();
+    }
+
+    private LocalDate[] normalize(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now(salesRollups.zone());
+        LocalDate end = to != null ? to : today;
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("La fecha inicial debe ser anterior a la final");
+        }
+        return new LocalDate[]{start, end};
+    }
+
+    private static SalesRollup.Granularity parseGranularity(String granularity) {
+        if (granularity == null || granularity.isBlank()) {
+            return SalesRollup.Granularity.DAY;
+        }
+        try {
+            return SalesRollup.Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Granularidad inválida: " + granularity);
+        }
+    }
+}
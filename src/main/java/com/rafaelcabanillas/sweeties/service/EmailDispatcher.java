@@ -0,0 +1,258 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.sendgrid.Method;
+import com.sendgrid.Request;
+import com.sendgrid.Response;
+import com.sendgrid.SendGrid;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Bounded outbound queue in front of SendGrid.
+ * <ul>
+ *     <li>a fixed set of workers (optionally virtual threads) drain the queue, one
+ *     SendGrid call per pickup;</li>
+ *     <li>at most {@code queue-capacity} messages wait, plus one per worker being sent;
+ *     when that is reached, producers wait up to {@code enqueue-timeout} (back-pressure)
+ *     and the message is dropped and counted if there is still no room;</li>
+ *     <li>429 and 5xx responses, as well as I/O errors, are retried with exponential
+ *     backoff: the retry is scheduled and re-queued, so no worker sleeps through it. A
+ *     message keeps its place in the bound until it is sent or given up.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class EmailDispatcher implements DisposableBean {
+
+    public record EmailMessage(String to, String subject, String body) {}
+
+    // One queued attempt; enqueuedAt is reset on each retry, startedAt is the first pickup
+    private record Delivery(EmailMessage message, int attempt, long enqueuedAt, long startedAt) {}
+
+    private final SendGrid sendGrid;
+    private final BlockingQueue<Delivery> queue = new LinkedBlockingQueue<>();
+    // Admission bound: queue-capacity + workers messages between dispatch() and sent/failed
+    private final Semaphore slots;
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService retryScheduler;
+    private volatile boolean closed;
+    private final long enqueueTimeoutMillis;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final Timer sendTimer;
+    private final Timer queueWaitTimer;
+    private final MeterRegistry registry;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter retried;
+    private final Counter rejected;
+
+    public EmailDispatcher(SendGrid sendGrid,
+                           MeterRegistry registry,
+                           @Value("${sweeties.email.workers:4}") int workerCount,
+                           @Value("${sweeties.email.queue-capacity:500}") int queueCapacity,
+                           @Value("${sweeties.email.virtual-threads:false}") boolean virtualThreads,
+                           @Value("${sweeties.email.enqueue-timeout:PT2S}") Duration enqueueTimeout,
+                           @Value("${sweeties.email.max-attempts:4}") int maxAttempts,
+                           @Value("${sweeties.email.initial-backoff:PT1S}") Duration initialBackoff,
+                           @Value("${sweeties.email.max-backoff:PT30S}") Duration maxBackoff) {
+        this.sendGrid = sendGrid;
+        this.enqueueTimeoutMillis = enqueueTimeout.toMillis();
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+        this.slots = new Semaphore(queueCapacity + workerCount);
+
+        this.registry = registry;
+        this.sendTimer = Timer.builder("sweeties.email.send").description("SendGrid call latency, retries included").register(registry);
+        this.queueWaitTimer = Timer.builder("sweeties.email.queue.wait").description("Time spent queued before a worker picked the message").register(registry);
+        this.sent = Counter.builder("sweeties.email.messages").tag("outcome", "sent").register(registry);
+        this.failed = Counter.builder("sweeties.email.messages").tag("outcome", "failed").register(registry);
+        this.rejected = Counter.builder("sweeties.email.messages").tag("outcome", "rejected").register(registry);
+        this.retried = Counter.builder("sweeties.email.retries").register(registry);
+        Gauge.builder("sweeties.email.queue.depth", queue, BlockingQueue::size).register(registry);
+
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("email-", 0).factory()
+                : Thread.ofPlatform().name("email-", 0).daemon(true).factory();
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = threadFactory.newThread(this::work);
+            workers.add(worker);
+            worker.start();
+        }
+        // Only waits out backoffs and re-queues; never calls SendGrid itself
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("email-retry").daemon(true).factory());
+    }
+
+    /**
+     * Queues a message for delivery.
+     *
+     * @return false when there was no room for the whole enqueue timeout, or the
+     * dispatcher is shutting down
+     */
+    public boolean dispatch(EmailMessage message) {
+        if (!closed) {
+            try {
+                if (slots.tryAcquire(enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    long now = System.nanoTime();
+                    queue.add(new Delivery(message, 1, now, now));
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        rejected.increment();
+        if (closed) {
+            log.error("Email dispatcher is shut down; dropping email to {} ({})", message.to(), message.subject());
+        } else {
+            log.error("Email queue full ({} pending); dropping email to {} ({})", queue.size(), message.to(), message.subject());
+        }
+        return false;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    // Worker loop: runs until shutdown and the queue is drained, or until interrupted
+    private void work() {
+        while (!(closed && queue.isEmpty())) {
+            Delivery delivery;
+            try {
+                delivery = queue.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (delivery == null) continue;
+            if (delivery.attempt() == 1) {
+                queueWaitTimer.record(System.nanoTime() - delivery.enqueuedAt(), TimeUnit.NANOSECONDS);
+            }
+            attempt(delivery);
+        }
+    }
+
+    /** One SendGrid call; on a retryable outcome the next attempt is scheduled, not awaited. */
+    private void attempt(Delivery delivery) {
+        EmailMessage message = delivery.message();
+        int attempt = delivery.attempt();
+        Integer status = null;
+        long callStart = System.nanoTime();
+        try {
+            Response response = sendGrid.api(request(message));
+            status = response.getStatusCode();
+            recordCall(callStart, (status / 100) + "xx");
+            if (status >= 200 && status < 300) {
+                sent.increment();
+                log.info("SendGrid Email sent successfully to {}. Status: {}", message.to(), status);
+                finish(delivery);
+                return;
+            }
+            if (!isRetryable(status)) {
+                failed.increment();
+                log.warn("SendGrid Email failed to send to {}. Status: {}. Body: {}", message.to(), status, response.getBody());
+                finish(delivery);
+                return;
+            }
+        } catch (IOException ex) {
+            recordCall(callStart, "io_error");
+            log.warn("Error calling SendGrid API for email to {} (attempt {}/{}): {}", message.to(), attempt, maxAttempts, ex.getMessage());
+        } catch (RuntimeException ex) {
+            failed.increment();
+            log.error("Unexpected error sending email to {}", message.to(), ex);
+            finish(delivery);
+            return;
+        }
+
+        if (attempt == maxAttempts || closed) {
+            failed.increment();
+            log.error("Giving up on email to {} after {} attempts", message.to(), attempt);
+            finish(delivery);
+            return;
+        }
+        retried.increment();
+        long backoff = backoffMillis(attempt);
+        log.debug("Retrying email to {} in {} ms (status {})", message.to(), backoff, status);
+        try {
+            retryScheduler.schedule(() -> queue.add(
+                            new Delivery(message, attempt + 1, System.nanoTime(), delivery.startedAt())),
+                    backoff, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down between the closed check and here
+            failed.increment();
+            log.error("Email dispatcher shut down before retrying email to {}", message.to());
+            finish(delivery);
+        }
+    }
+
+    // Sent or given up: record the end-to-end time and free the message's slot
+    private void finish(Delivery delivery) {
+        sendTimer.record(System.nanoTime() - delivery.startedAt(), TimeUnit.NANOSECONDS);
+        slots.release();
+    }
+
+    /** One SendGrid HTTP call, without retries or backoff; {@code status} is 2xx/4xx/5xx or io_error. */
+    private void recordCall(long start, String status) {
+        Timer.builder("sweeties.email.sendgrid.request")
+                .tag("status", status)
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private Request request(EmailMessage message) {
+        Request request = new Request();
+        request.setMethod(Method.POST);
+        request.setEndpoint("mail/send");
+        request.setBody(message.body());
+        return request;
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    /** Exponential backoff capped at max-backoff, randomized over its upper half so retries spread out. */
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    /**
+     * Stops accepting messages, drops retries still waiting out their backoff, and gives
+     * the workers up to 10 seconds to send what is already queued. Anything dropped is
+     * counted as failed and logged.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        closed = true;
+        List<Runnable> pendingRetries = retryScheduler.shutdownNow();
+        if (!pendingRetries.isEmpty()) {
+            failed.increment(pendingRetries.size());
+            log.warn("Email dispatcher stopped with {} retries still pending", pendingRetries.size());
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        if (!queue.isEmpty()) {
+            failed.increment(queue.size());
+            log.warn("Email dispatcher stopped with {} messages still queued", queue.size());
+        }
+        workers.forEach(Thread::interrupt);
+    }
+}
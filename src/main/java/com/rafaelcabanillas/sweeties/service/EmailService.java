@@ -5,8 +5,8 @@ import com.rafaelcabanillas.sweeties.dto.OrderDTO;
 
 public interface EmailService {
 
-    void sendOrderConfirmationToGuest(OrderDTO order);
-    void sendOrderConfirmationToAdmin(OrderDTO order);
+    /** Sends the guest confirmation and the admin notification for a new order. */
+    void sendOrderConfirmations(OrderDTO order);
     void sendContactFormToAdmin(ContactRequestDTO contactRequest);
 
 }
\ No newline at end of file
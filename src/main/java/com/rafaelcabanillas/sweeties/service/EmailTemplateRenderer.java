@@ -0,0 +1,95 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.dto.ContactRequestDTO;
+import com.rafaelcabanillas.sweeties.dto.OrderDTO;
+import com.rafaelcabanillas.sweeties.dto.OrderItemDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.expression.ThymeleafEvaluationContext;
+
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Renders the email/*.html templates. Thymeleaf keeps parsed templates in its
+ * template cache ({@code spring.thymeleaf.cache=true}); {@link #warmUp()} fills that
+ * cache at startup so no customer request pays for parsing, and a broken template
+ * fails on boot instead of on the first order.
+ * <p>
+ * Only the parsed templates are shared. Each render gets its own SpEL evaluation
+ * context: Thymeleaf sets the expression objects ({@code #temporals}, {@code #numbers},
+ * the locale) on it for every expression, so one context shared across the async
+ * email workers would let concurrent renders overwrite each other's.
+ */
+@Component
+@Slf4j
+public class EmailTemplateRenderer {
+
+    static final String ORDER_GUEST = "email/order-confirmation-guest";
+    static final String ORDER_ADMIN = "email/order-notification-admin";
+    static final String CONTACT_ADMIN = "email/contact-notification-admin";
+
+    private static final int INITIAL_BUFFER = 8 * 1024;
+
+    private final TemplateEngine templateEngine;
+    private final ApplicationContext applicationContext;
+
+    public EmailTemplateRenderer(TemplateEngine templateEngine, ApplicationContext applicationContext) {
+        this.templateEngine = templateEngine;
+        this.applicationContext = applicationContext;
+    }
+
+    public record OrderEmails(String guestHtml, String adminHtml) {}
+
+    /** Renders the guest confirmation and the admin notification from one shared context. */
+    public OrderEmails renderOrderEmails(OrderDTO order) {
+        Context context = newContext();
+        context.setVariable("order", order);
+        return new OrderEmails(render(ORDER_GUEST, context), render(ORDER_ADMIN, context));
+    }
+
+    public String renderContactNotification(ContactRequestDTO contact) {
+        Context context = newContext();
+        context.setVariable("contact", contact);
+        return render(CONTACT_ADMIN, context);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.nanoTime();
+
+        OrderDTO sampleOrder = OrderDTO.builder()
+                .id(0L).name("warm-up").email("warm-up@example.com").phone("0").note("")
+                .items(List.of(OrderItemDTO.builder().productId("0").name("warm-up").price(1.0).quantity(1).build()))
+                .total(1.0)
+                .build();
+        renderOrderEmails(sampleOrder);
+
+        ContactRequestDTO sampleContact = new ContactRequestDTO();
+        sampleContact.setName("warm-up");
+        sampleContact.setEmail("warm-up@example.com");
+        sampleContact.setMessage("warm-up");
+        sampleContact.setSubject("warm-up");
+        renderContactNotification(sampleContact);
+
+        log.info("Email templates parsed and cached in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Context newContext() {
+        Context context = new Context();
+        context.setVariable(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+                new ThymeleafEvaluationContext(applicationContext, null));
+        return context;
+    }
+
+    private String render(String template, Context context) {
+        StringWriter out = new StringWriter(INITIAL_BUFFER);
+        templateEngine.process(template, context, out);
+        return out.toString();
+    }
+}
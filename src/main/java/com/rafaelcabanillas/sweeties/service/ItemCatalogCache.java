@@ -0,0 +1,158 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.dto.ItemDTO;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * In-process read-through cache for the item catalog.
+ * Holds one immutable snapshot (full list + id index) that is rebuilt on the first
+ * read after an invalidation or after the TTL elapses, and by {@link #refresh} on a
+ * schedule. {@link ItemDTO} is a mutable bean, so callers get copies and never the
+ * cached instances. Every invalidation, and any reload that finds different data, bumps the
+ * catalog's HTTP version (ETag).
+ * <p>
+ * Revalidations answered with 304 never read the snapshot, so on an instance that did
+ * not make a write only the scheduled refresh notices it and moves the ETag.
+ */
+@Component
+@Slf4j
+public class ItemCatalogCache {
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    // Bumped on every invalidation; a snapshot built for an older generation is never served
+    private final AtomicLong generation = new AtomicLong();
+    // Not a monitor: on JDK 21 a virtual thread blocked in or on a synchronized block pins
+    // its carrier, and the load below waits for a db bulkhead permit while holding this
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final long ttlNanos;
+    private final ResourceVersions resourceVersions;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+    private final Timer loadTimer;
+
+    public ItemCatalogCache(MeterRegistry registry,
+                            ResourceVersions resourceVersions,
+                            @Value("${sweeties.cache.catalog.ttl:PT10M}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.resourceVersions = resourceVersions;
+        this.hits = Counter.builder("sweeties.cache.catalog.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("sweeties.cache.catalog.requests").tag("result", "miss").register(registry);
+        this.invalidations = Counter.builder("sweeties.cache.catalog.invalidations").register(registry);
+        this.loadTimer = Timer.builder("sweeties.cache.catalog.load").register(registry);
+        Gauge.builder("sweeties.cache.catalog.size", snapshot, s -> {
+            Snapshot current = s.get();
+            return current != null ? current.items().size() : 0;
+        }).register(registry);
+    }
+
+    public List<ItemDTO> getAll(Supplier<List<ItemDTO>> loader) {
+        return getMatching(item -> true, loader);
+    }
+
+    /** Copies of the cached items that pass {@code filter}, in catalog order. */
+    public List<ItemDTO> getMatching(Predicate<ItemDTO> filter, Supplier<List<ItemDTO>> loader) {
+        return current(loader).items().stream()
+                .filter(filter)
+                .map(ItemCatalogCache::copy)
+                .toList();
+    }
+
+    public Optional<ItemDTO> get(Long id, Supplier<List<ItemDTO>> loader) {
+        return Optional.ofNullable(current(loader).byId().get(id)).map(ItemCatalogCache::copy);
+    }
+
+    /** Drops the current snapshot; the next read reloads from the database. */
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+        resourceVersions.bump(ResourceVersions.Resource.CATALOG);
+        invalidations.increment();
+    }
+
+    private Snapshot current(Supplier<List<ItemDTO>> loader) {
+        Snapshot snap = snapshot.get();
+        if (isFresh(snap)) {
+            hits.increment();
+            return snap;
+        }
+        loadLock.lock();
+        try {
+            // Another thread may have finished loading while we waited
+            snap = snapshot.get();
+            if (isFresh(snap)) {
+                hits.increment();
+                return snap;
+            }
+            misses.increment();
+            return reload(snap, loader);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /** Reloads now, fresh or not; picks up writes made on other instances or by hand. */
+    public void refresh(Supplier<List<ItemDTO>> loader) {
+        loadLock.lock();
+        try {
+            reload(snapshot.get(), loader);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // Caller holds loadLock
+    private Snapshot reload(Snapshot previous, Supplier<List<ItemDTO>> loader) {
+        long gen = generation.get();
+        List<ItemDTO> items = loadTimer.record(loader);
+        if (previous != null && !previous.items().equals(items)) {
+            // The table changed underneath us (another instance, manual SQL)
+            resourceVersions.bump(ResourceVersions.Resource.CATALOG);
+        }
+        Snapshot snap = Snapshot.of(gen, items);
+        snapshot.set(snap);
+        log.debug("Catalog cache loaded {} items (generation {})", items.size(), gen);
+        return snap;
+    }
+
+    // The lists are already unmodifiable; only the DTO and its sizes need new instances
+    private static ItemDTO copy(ItemDTO item) {
+        return item.toBuilder()
+                .size(item.getSize() == null ? null : item.getSize().stream()
+                        .map(size -> size.toBuilder().build())
+                        .toList())
+                .build();
+    }
+
+    private boolean isFresh(Snapshot snap) {
+        return snap != null
+                && snap.generation() == generation.get()
+                && System.nanoTime() - snap.loadedAtNanos() < ttlNanos;
+    }
+
+    private record Snapshot(long generation, List<ItemDTO> items, Map<Long, ItemDTO> byId, long loadedAtNanos) {
+        static Snapshot of(long generation, List<ItemDTO> items) {
+            Map<Long, ItemDTO> byId = new HashMap<>(items.size() * 2);
+            for (ItemDTO item : items) {
+                byId.put(item.getId(), item);
+            }
+            return new Snapshot(generation, List.copyOf(items), Collections.unmodifiableMap(byId), System.nanoTime());
+        }
+    }
+}
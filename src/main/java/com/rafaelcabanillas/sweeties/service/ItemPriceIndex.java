@@ -0,0 +1,204 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.model.Item;
+import com.rafaelcabanillas.sweeties.repository.ItemRepository;
+import com.rafaelcabanillas.sweeties.util.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Price and visibility of every item, for validating checkout without touching the
+ * database. The index is an immutable snapshot of three parallel arrays sorted by id
+ * (binary-searched, a few bytes per item); item writes publish a copy with the one
+ * entry changed after their transaction commits, and a periodic reload from the
+ * database corrects any drift from writes that bypassed the service.
+ * <p>
+ * Prices are kept in cents so order totals can be recomputed without floating-point residue.
+ */
+@Component
+@Slf4j
+public class ItemPriceIndex {
+
+    /** Result of a lookup; {@code null} from {@link #find} means the item does not exist. */
+    public record Entry(long id, long priceCents, boolean visible) {}
+
+    private final ItemRepository itemRepository;
+    private final Counter corrections;
+
+    // Replaced wholesale, never mutated; writers and reload() serialize on writeLock
+    private volatile Snapshot snapshot;
+    // A lock rather than synchronized, so virtual threads waiting out a reload unmount
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public ItemPriceIndex(ItemRepository itemRepository, MeterRegistry registry) {
+        this.itemRepository = itemRepository;
+        this.corrections = Counter.builder("sweeties.checkout.price_index.corrections").register(registry);
+        Gauge.builder("sweeties.checkout.price_index.size", this, i -> {
+            Snapshot current = i.snapshot;
+            return current != null ? current.ids.length : 0;
+        }).register(registry);
+    }
+
+    public Entry find(long id) {
+        Snapshot snap = snapshot;
+        if (snap == null) {
+            reload();
+            snap = snapshot;
+        }
+        int i = Arrays.binarySearch(snap.ids, id);
+        return i < 0 ? null : new Entry(id, snap.priceCents[i], snap.visible[i]);
+    }
+
+    /* ------------------------- write-path updates ------------------------ */
+
+    /** Publishes the item's current price and visibility once the caller's transaction commits. */
+    public void itemSaved(Item item) {
+        long id = item.getId();
+        long cents = toCents(item.getPrice());
+        boolean visible = item.isVisible();
+        AfterCommit.run(() -> update(id, cents, visible, false));
+    }
+
+    public void itemDeleted(long id) {
+        AfterCommit.run(() -> update(id, 0, false, true));
+    }
+
+    private void update(long id, long cents, boolean visible, boolean remove) {
+        writeLock.lock();
+        try {
+            Snapshot snap = snapshot;
+            if (snap == null) {
+                // Not loaded yet; the first lookup reads everything, this write included
+                return;
+            }
+            snapshot = remove ? snap.without(id) : snap.with(id, cents, visible);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* ------------------------------ reload ------------------------------- */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reload();
+    }
+
+    /**
+     * Reads every item's price from the database and replaces the index. Updates are
+     * idempotent and wait for a running reload, so a write that commits mid-read is
+     * applied on top of the loaded rows rather than lost.
+     */
+    @Scheduled(fixedDelayString = "${sweeties.checkout.price-index-refresh:PT10M}",
+            initialDelayString = "${sweeties.checkout.price-index-refresh:PT10M}")
+    public void reload() {
+        writeLock.lock();
+        try {
+            Snapshot loaded = Snapshot.of(itemRepository.findPriceRows());
+            Snapshot previous = snapshot;
+            if (previous != null && !previous.sameAs(loaded)) {
+                corrections.increment();
+                log.warn("Price index drifted from the items table; reloaded {} items", loaded.ids.length);
+            }
+            snapshot = loaded;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    static long toCents(Double amount) {
+        return amount != null ? Math.round(amount * 100) : 0L;
+    }
+
+    private static final class Snapshot {
+        final long[] ids;
+        final long[] priceCents;
+        final boolean[] visible;
+
+        Snapshot(long[] ids, long[] priceCents, boolean[] visible) {
+            this.ids = ids;
+            this.priceCents = priceCents;
+            this.visible = visible;
+        }
+
+        /** Rows are (id, price, isVisible) ordered by id. */
+        static Snapshot of(List<Object[]> rows) {
+            int n = rows.size();
+            long[] ids = new long[n];
+            long[] prices = new long[n];
+            boolean[] visible = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                Object[] row = rows.get(i);
+                ids[i] = (Long) row[0];
+                prices[i] = toCents((Double) row[1]);
+                visible[i] = (Boolean) row[2];
+            }
+            return new Snapshot(ids, prices, visible);
+        }
+
+        Snapshot with(long id, long cents, boolean vis) {
+            int i = Arrays.binarySearch(ids, id);
+            if (i >= 0) {
+                long[] prices = priceCents.clone();
+                boolean[] visibility = visible.clone();
+                prices[i] = cents;
+                visibility[i] = vis;
+                return new Snapshot(ids, prices, visibility);
+            }
+            int at = -i - 1;
+            return new Snapshot(insert(ids, at, id), insert(priceCents, at, cents), insert(visible, at, vis));
+        }
+
+        Snapshot without(long id) {
+            int i = Arrays.binarySearch(ids, id);
+            if (i < 0) return this;
+            return new Snapshot(remove(ids, i), remove(priceCents, i), remove(visible, i));
+        }
+
+        boolean sameAs(Snapshot other) {
+            return Arrays.equals(ids, other.ids)
+                    && Arrays.equals(priceCents, other.priceCents)
+                    && Arrays.equals(visible, other.visible);
+        }
+
+        private static long[] insert(long[] a, int at, long v) {
+            long[] out = new long[a.length + 1];
+            System.arraycopy(a, 0, out, 0, at);
+            out[at] = v;
+            System.arraycopy(a, at, out, at + 1, a.length - at);
+            return out;
+        }
+
+        private static boolean[] insert(boolean[] a, int at, boolean v) {
+            boolean[] out = new boolean[a.length + 1];
+            System.arraycopy(a, 0, out, 0, at);
+            out[at] = v;
+            System.arraycopy(a, at, out, at + 1, a.length - at);
+            return out;
+        }
+
+        private static long[] remove(long[] a, int at) {
+            long[] out = new long[a.length - 1];
+            System.arraycopy(a, 0, out, 0, at);
+            System.arraycopy(a, at + 1, out, at, a.length - at - 1);
+            return out;
+        }
+
+        private static boolean[] remove(boolean[] a, int at) {
+            boolean[] out = new boolean[a.length - 1];
+            System.arraycopy(a, 0, out, 0, at);
+            System.arraycopy(a, at + 1, out, at, a.length - at - 1);
+            return out;
+        }
+    }
+}
@@ -8,6 +8,9 @@ public interface ItemService {
                        List<String> spriteUrls, List<String> spritePublicIds);
     ItemDTO getItemById(Long id);
     List<ItemDTO> getAllItems();
+    List<ItemDTO> getFeaturedItems();
+    ItemPageDTO getCatalogPage(Long cursor, int limit, Boolean visible, Boolean featured,
+                               Double minPrice, Double maxPrice, String material);
     ItemDTO updateItem(Long id, UpdateItemDTO dto, String imageUrl, String imagePublicId,
                        List<String> spriteUrls, List<String> spritePublicIds);
     void deleteItem(Long id);
@@ -2,13 +2,18 @@ package com.rafaelcabanillas.sweeties.service;
 
 import com.rafaelcabanillas.sweeties.dto.CreateItemDTO;
 import com.rafaelcabanillas.sweeties.dto.ItemDTO;
+import com.rafaelcabanillas.sweeties.dto.ItemPageDTO;
 import com.rafaelcabanillas.sweeties.dto.SizeDTO;
 import com.rafaelcabanillas.sweeties.dto.UpdateItemDTO;
 import com.rafaelcabanillas.sweeties.exception.ResourceNotFoundException;
 import com.rafaelcabanillas.sweeties.model.Item;
 import com.rafaelcabanillas.sweeties.model.Item.Size;
 import com.rafaelcabanillas.sweeties.repository.ItemRepository;
+import com.rafaelcabanillas.sweeties.util.AfterCommit;
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,7 +26,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ItemRepository itemRepository;
+    private final ItemCatalogCache catalogCache;
+    private final DashboardCounters dashboardCounters;
+    private final ItemPriceIndex priceIndex;
 
     /* ===================== CREATE ===================== */
 
@@ -58,6 +68,9 @@ public class ItemServiceImpl implements ItemService {
                 .build();
 
         itemRepository.save(item);
+        AfterCommit.run(catalogCache::invalidate);
+        priceIndex.itemSaved(item);
+        dashboardCounters.itemCreated();
         return toItemDTO(item);
     }
 
@@ -65,14 +78,86 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemDTO getItemById(Long id) {
-        return itemRepository.findById(id)
-                .map(this::toItemDTO)
+        return catalogCache.get(id, this::loadCatalog)
                 .orElseThrow(() -> new ResourceNotFoundException("El artículo no existe"));
     }
 
     @Override
     public List<ItemDTO> getAllItems() {
-        return itemRepository.findAll().stream()
+        return catalogCache.getAll(this::loadCatalog);
+    }
+
+    /** Visible featured items, newest first, filtered from the cached catalog. */
+    @Override
+    public List<ItemDTO> getFeaturedItems() {
+        return catalogCache.getMatching(item -> item.isFeatured() && item.isVisible(), this::loadCatalog);
+    }
+
+    /**
+     * Keyset page over the catalog, newest first: {@code cursor} is the last id of the
+     * previous page, so each page is an index range scan no matter how deep the client is.
+     * The page's ids are selected first and the items loaded by id, so the subselect-fetched
+     * collections are read for that page only, not for everything the filter matches.
+     */
+    @Override
+    public ItemPageDTO getCatalogPage(Long cursor, int limit, Boolean visible, Boolean featured,
+                                      Double minPrice, Double maxPrice, String material) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        Specification<Item> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (cursor != null) {
+                predicates.add(cb.lessThan(root.get("id"), cursor));
+            }
+            if (visible != null) {
+                predicates.add(cb.equal(root.get("isVisible"), visible));
+            }
+            if (featured != null) {
+                predicates.add(cb.equal(root.get("isFeatured"), featured));
+            }
+            if (minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), minPrice));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), maxPrice));
+            }
+            if (material != null && !material.isBlank()) {
+                predicates.add(cb.isMember(material.trim(), root.get("materials")));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+
+        // Fetch one extra id to learn whether another page exists without a COUNT query
+        List<Long> ids = itemRepository.findPageIds(spec, pageSize + 1);
+        boolean hasMore = ids.size() > pageSize;
+        List<Item> rows = ids.isEmpty() ? List.of()
+                : itemRepository.findAllByIdNewestFirst(hasMore ? ids.subList(0, pageSize) : ids);
+
+        List<ItemDTO> items = rows.stream()
+                .map(this::toItemDTO)
+                .toList();
+
+        return ItemPageDTO.builder()
+                .items(items)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Re-reads the catalog on a schedule so writes made on other instances move this
+     * instance's ETag even while every client only revalidates (304s never reload).
+     */
+    @Scheduled(fixedDelayString = "${sweeties.cache.catalog.refresh:PT2M}",
+            initialDelayString = "${sweeties.cache.catalog.refresh:PT2M}")
+    public void refreshCatalog() {
+        catalogCache.refresh(this::loadCatalog);
+    }
+
+    private List<ItemDTO> loadCatalog() {
+        return itemRepository.findCatalog().stream()
                 .map(this::toItemDTO)
                 .toList();
     }
@@ -123,6 +208,8 @@ public class ItemServiceImpl implements ItemService {
         if (dto.getIsVisible()  != null) item.setVisible(dto.getIsVisible());
 
         itemRepository.save(item);
+        AfterCommit.run(catalogCache::invalidate);
+        priceIndex.itemSaved(item);
         return toItemDTO(item);
     }
 
@@ -135,11 +222,14 @@ public class ItemServiceImpl implements ItemService {
             throw new ResourceNotFoundException("El artículo no existe");
         }
         itemRepository.deleteById(id);
+        AfterCommit.run(catalogCache::invalidate);
+        priceIndex.itemDeleted(id);
+        dashboardCounters.itemDeleted();
     }
 
     /* ===================== Helpers ===================== */
 
-    private ItemDTO toItemDTO(Item item) {
+    ItemDTO toItemDTO(Item item) {
         return ItemDTO.builder()
                 .id(item.getId())
                 .name(item.getName())
@@ -147,7 +237,7 @@ public class ItemServiceImpl implements ItemService {
                 .price(item.getPrice())
                 .imageUrl(item.getImageUrl())
                 .imagePublicId(item.getImagePublicId())
-                .materials(item.getMaterials())
+                .materials(readOnlyCopy(item.getMaterials()))
                 .size(item.getSize() != null
                         ? item.getSize().stream()
                         .map(sz -> SizeDTO.builder()
@@ -156,13 +246,18 @@ public class ItemServiceImpl implements ItemService {
                                 .build())
                         .toList()
                         : Collections.emptyList())
-                .sprites(item.getSprites())
-                .spritesPublicIds(item.getSpritesPublicIds())
+                .sprites(readOnlyCopy(item.getSprites()))
+                .spritesPublicIds(readOnlyCopy(item.getSpritesPublicIds()))
                 .isFeatured(item.isFeatured())
                 .isVisible(item.isVisible())
                 .build();
     }
 
+    private static <T> List<T> readOnlyCopy(List<T> list) {
+        // DTOs are shared through the catalog cache, so detach them from the JPA collections
+        return list == null ? null : Collections.unmodifiableList(new ArrayList<>(list));
+    }
+
     private static <T> List<T> nullSafe(List<T> list) {
         // Always return a mutable list for JPA
         return list == null ? new ArrayList<>() : list;
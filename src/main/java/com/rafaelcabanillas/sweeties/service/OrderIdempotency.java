@@ -0,0 +1,176 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rafaelcabanillas.sweeties.dto.CreateOrderDTO;
+import com.rafaelcabanillas.sweeties.dto.OrderDTO;
+import com.rafaelcabanillas.sweeties.model.OrderIdempotencyKey;
+import com.rafaelcabanillas.sweeties.repository.OrderIdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Makes {@code POST /api/orders} safe to retry under an {@code Idempotency-Key} header.
+ * <p>
+ * Recent keys live in memory as futures: the first request for a key does the work and
+ * every concurrent duplicate waits on the same future, so a burst of retries creates one
+ * order. Keys are also written to {@code order_idempotency_keys} in the order's own
+ * transaction, which covers retries that land on another instance or after a restart;
+ * the table's primary key decides the winner when two instances race on the same key.
+ * A key reused with a different request body is refused rather than replayed.
+ */
+@Component
+@Slf4j
+public class OrderIdempotency {
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    /** The order a key resolved to; {@code replayed} is false only for the request that created it. */
+    public record Result(long orderId, boolean replayed) {}
+
+    private record Claim(long orderId, String requestHash) {}
+
+    private final OrderService orderService;
+    private final OrderIdempotencyKeyRepository keyRepository;
+    private final TransactionTemplate transaction;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    // Failed futures are dropped by Caffeine, so only successful claims are remembered
+    private final AsyncCache<String, Claim> claims;
+
+    private final Counter created;
+    private final Counter replayed;
+
+    public OrderIdempotency(OrderService orderService,
+                            OrderIdempotencyKeyRepository keyRepository,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            MeterRegistry registry,
+                            @Value("${sweeties.orders.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${sweeties.orders.idempotency.max-size:10000}") long maxSize) {
+        this.orderService = orderService;
+        this.keyRepository = keyRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.claims = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(registry, claims, "order-idempotency");
+        this.created = Counter.builder("sweeties.orders.idempotency").tag("result", "created").register(registry);
+        this.replayed = Counter.builder("sweeties.orders.idempotency").tag("result", "replayed").register(registry);
+    }
+
+    public Result createOrder(String key, CreateOrderDTO dto) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key debe tener entre 1 y " + MAX_KEY_LENGTH + " caracteres");
+        }
+        String hash = fingerprint(dto);
+
+        CompletableFuture<Claim> mine = new CompletableFuture<>();
+        CompletableFuture<Claim> existing = claims.asMap().putIfAbsent(key, mine);
+        if (existing != null) {
+            // In flight elsewhere in this instance, or done recently: never create a second order
+            return replay(await(existing), hash);
+        }
+
+        try {
+            Claim stored = keyRepository.findById(key)
+                    .map(row -> new Claim(row.getOrderId(), row.getRequestHash()))
+                    .orElse(null);
+            if (stored != null) {
+                mine.complete(stored);
+                return replay(stored, hash);
+            }
+
+            Long orderId = transaction.execute(status -> {
+                OrderDTO order = orderService.createOrder(dto);
+                if (keyRepository.claim(key, hash, order.getId(), OffsetDateTime.now()) == 0) {
+                    // Another instance committed this key first; undo our order and serve theirs
+                    status.setRollbackOnly();
+                    return null;
+                }
+                return order.getId();
+            });
+
+            if (orderId == null) {
+                OrderIdempotencyKey winner = keyRepository.findById(key).orElseThrow();
+                Claim claim = new Claim(winner.getOrderId(), winner.getRequestHash());
+                mine.complete(claim);
+                return replay(claim, hash);
+            }
+            mine.complete(new Claim(orderId, hash));
+            created.increment();
+            return new Result(orderId, false);
+        } catch (RuntimeException e) {
+            // Waiters see the same failure; the key stays free for a later retry
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /** Drops keys past their TTL; the in-memory copies expire on their own. */
+    @Scheduled(fixedDelayString = "${sweeties.orders.idempotency.purge-interval:PT1H}",
+            initialDelayString = "${sweeties.orders.idempotency.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = keyRepository.deleteOlderThan(OffsetDateTime.now().minus(ttl));
+        if (purged > 0) {
+            log.debug("Purged {} expired order idempotency keys", purged);
+        }
+    }
+
+    private Result replay(Claim claim, String hash) {
+        if (!claim.requestHash().equals(hash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "La clave de idempotencia ya se usó con otro pedido");
+        }
+        replayed.increment();
+        return new Result(claim.orderId(), true);
+    }
+
+    private static Claim await(CompletableFuture<Claim> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String fingerprint(CreateOrderDTO dto) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(objectMapper.writeValueAsBytes(dto)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Order request could not be serialized", e);
+        }
+    }
+}
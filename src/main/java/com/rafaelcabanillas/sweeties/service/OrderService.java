@@ -14,7 +14,7 @@ public interface OrderService {
     OrderDTO getOrderById(Long id);
     OrderDTO updateOrderStatus(Long id, String status);
     List<OrderDTO> getOrdersByStatus(String status, int page, int size);
-    void exportOrdersAsCsv(Writer writer) throws IOException;
+    void exportOrdersAsCsv(String status, OffsetDateTime from, OffsetDateTime to, Writer writer) throws IOException;
     void deleteOrder(Long id);
     List<OrderDTO> filterOrders(
         String status, OffsetDateTime from, OffsetDateTime to, Double minTotal, Double maxTotal,
@@ -5,63 +5,95 @@ import com.rafaelcabanillas.sweeties.model.Order;
 import com.rafaelcabanillas.sweeties.model.OrderItem;
 import com.rafaelcabanillas.sweeties.repository.OrderRepository;
 import com.rafaelcabanillas.sweeties.exception.ResourceNotFoundException;
+import com.rafaelcabanillas.sweeties.util.AfterCommit;
+import com.rafaelcabanillas.sweeties.util.CsvWriter;
 import jakarta.persistence.criteria.Predicate; // Make sure this is imported
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification; // Make sure this is imported
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.time.OffsetDateTime;
 import java.util.ArrayList; // Make sure this is imported
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderServiceImpl implements OrderService {
+    // Rows pulled per round trip from the export cursor
+    private static final int EXPORT_FETCH_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final EmailService emailService;
+    private final DashboardCounters dashboardCounters;
+    private final SalesRollups salesRollups;
+    private final ItemPriceIndex priceIndex;
 
     @Override
+    @Transactional
     public OrderDTO createOrder(CreateOrderDTO dto) {
+        // Prices come from the catalog, never from the client
+        List<OrderItem> lines = new ArrayList<>(dto.getItems().size());
+        long totalCents = 0;
+        for (OrderItemDTO i : dto.getItems()) {
+            ItemPriceIndex.Entry item = checkoutItem(i);
+            lines.add(OrderItem.builder()
+                    .productId(i.getProductId())
+                    .name(i.getName())
+                    .price(item.priceCents() / 100.0)
+                    .quantity(i.getQuantity())
+                    .build());
+            totalCents += item.priceCents() * i.getQuantity();
+        }
+        // The client's total is what the customer saw; refuse rather than charge a different amount
+        if (ItemPriceIndex.toCents(dto.getTotal()) != totalCents) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Los precios cambiaron; el total actual es " + totalCents / 100.0);
+        }
+
         Order order = Order.builder()
                 .name(dto.getName())
                 .email(dto.getEmail())
                 .phone(dto.getPhone())
                 .note(dto.getNote())
-                .items(dto.getItems().stream()
-                        .map(i -> OrderItem.builder()
-                                .productId(i.getProductId())
-                                .name(i.getName())
-                                .price(i.getPrice())
-                                .quantity(i.getQuantity())
-                                .build())
-                        .collect(Collectors.toList())) // This is still correct!
-                .total(dto.getTotal())
+                .items(lines)
+                .total(totalCents / 100.0)
                 .status(Order.OrderStatus.PENDIENTE) // <-- FIX 1: Use the Enum
                 .build();
         orderRepository.save(order);
+        salesRollups.recordCreated(order);
+        dashboardCounters.orderCreated(order.getStatus(), order.getTotal());
 
         OrderDTO savedOrder = toOrderDTO(order);
 
-        try {
-            // Updated method signatures (no 'to' param needed)
-            emailService.sendOrderConfirmationToGuest(savedOrder);
-            emailService.sendOrderConfirmationToAdmin(savedOrder);
-        } catch (Exception ex) { // Catch the general Exception
-            // Log but do not fail the order creation!
-            // We can now use the Slf4j logger
-            log.error("Failed to send order confirmation emails for order ID {}", savedOrder.getId(), ex);
-        }
+        // Only email once the order (and its rollups) actually committed
+        AfterCommit.run(() -> {
+            try {
+                // Guest + admin emails rendered together in one async task
+                emailService.sendOrderConfirmations(savedOrder);
+            } catch (Exception ex) { // Catch the general Exception
+                // Log but do not fail the order creation!
+                // We can now use the Slf4j logger
+                log.error("Failed to send order confirmation emails for order ID {}", savedOrder.getId(), ex);
+            }
+        });
 
         return savedOrder;
     }
 
     @Override
+    @Transactional
     public OrderDTO updateOrderStatus(Long id, String status) {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("El pedido no existe"));
@@ -75,9 +107,12 @@ public class OrderServiceImpl implements OrderService {
             throw new IllegalArgumentException("Estado inválido: " + status);
         }
 
+        Order.OrderStatus previousStatus = order.getStatus();
         order.setStatus(newStatus);
 
         orderRepository.save(order);
+        salesRollups.recordStatusChange(order, previousStatus, newStatus);
+        dashboardCounters.orderStatusChanged(previousStatus, newStatus);
         return toOrderDTO(order);
     }
 
@@ -171,30 +206,78 @@ public class OrderServiceImpl implements OrderService {
         return toOrderDTO(order);
     }
 
-    public void exportOrdersAsCsv(Writer writer) throws IOException {
-        List<Order> orders = orderRepository.findAll(Sort.by("createdAt").descending());
-        List<OrderDTO> orderDtos = orders.stream().map(this::toOrderDTO).toList();
-
-        writer.write("id,name,email,phone,total,status,createdAt,updatedAt\n");
-        for (OrderDTO order : orderDtos) {
-            writer.write(String.format(
-                    "%d,%s,%s,%s,%.2f,%s,%s,%s\n",
-                    order.getId(), order.getName(), order.getEmail(), order.getPhone(),
-                    order.getTotal(), order.getCreatedAt(), order.getUpdatedAt()
-            ));
+    /**
+     * Streams the export straight from a database cursor: only {@link #EXPORT_FETCH_SIZE}
+     * rows are in memory at a time, whatever the size of the order history.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrdersAsCsv(String status, OffsetDateTime from, OffsetDateTime to, Writer writer) throws IOException {
+        Order.OrderStatus exportStatus = null;
+        if (status != null && !status.isBlank()) {
+            try {
+                exportStatus = Order.OrderStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Estado inválido: " + status);
+            }
         }
-        writer.flush();
+
+        CsvWriter csv = new CsvWriter(new BufferedWriter(writer, 16 * 1024));
+        writeExportHeader(csv);
+
+        try (Stream<OrderExportRow> rows = orderRepository.streamForExport(exportStatus, from, to, EXPORT_FETCH_SIZE)) {
+            Iterator<OrderExportRow> it = rows.iterator();
+            while (it.hasNext()) {
+                writeExportRow(csv, it.next());
+            }
+        }
+        csv.flush();
+    }
+
+    static void writeExportHeader(CsvWriter csv) throws IOException {
+        csv.field("id").field("name").field("email").field("phone").field("total")
+                .field("status").field("createdAt").field("updatedAt").endRow();
+    }
+
+    static void writeExportRow(CsvWriter csv, OrderExportRow row) throws IOException {
+        csv.field(row.getId())
+                .field(row.getName())
+                .field(row.getEmail())
+                .field(row.getPhone())
+                .money(row.getTotal())
+                .field(row.getStatus() != null ? row.getStatus().name() : null)
+                .field(row.getCreatedAt() != null ? row.getCreatedAt().toString() : null)
+                .field(row.getUpdatedAt() != null ? row.getUpdatedAt().toString() : null)
+                .endRow();
     }
 
     @Override
+    @Transactional
     public void deleteOrder(Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new ResourceNotFoundException("El pedido no existe");
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("El pedido no existe"));
+        orderRepository.delete(order);
+        salesRollups.recordDeleted(order);
+        dashboardCounters.orderDeleted(order.getStatus(), order.getTotal());
+    }
+
+    private ItemPriceIndex.Entry checkoutItem(OrderItemDTO line) {
+        if (line.getQuantity() == null || line.getQuantity() < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cantidad inválida para el artículo " + line.getProductId());
+        }
+        ItemPriceIndex.Entry item = null;
+        try {
+            item = priceIndex.find(Long.parseLong(line.getProductId()));
+        } catch (NumberFormatException ignored) {
+            // not a catalog id; reported as unknown below
+        }
+        if (item == null || !item.visible()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El artículo " + line.getProductId() + " no está disponible");
         }
-        orderRepository.deleteById(id);
+        return item;
     }
 
-    private OrderDTO toOrderDTO(Order order) {
+    OrderDTO toOrderDTO(Order order) {
         return OrderDTO.builder()
                 .id(order.getId())
                 .name(order.getName())
@@ -1,13 +1,16 @@
 package com.rafaelcabanillas.sweeties.service;
 
 import com.rafaelcabanillas.sweeties.model.User;
-import com.rafaelcabanillas.sweeties.model.RefreshToken;
 
 public interface RefreshTokenService {
-    RefreshToken createToken(User user, long durationMinutes);
+
+    /** A freshly issued token; {@code token} is the only copy of the plaintext and goes to the client. */
+    record IssuedToken(String token, User user) {}
+
+    IssuedToken createToken(User user, long durationMinutes);
     boolean isValid(String token);
     User getUserFromToken(String token);
     void deleteToken(String token);
 
-    RefreshToken rotateToken(String oldToken);
+    IssuedToken rotateToken(String oldToken);
 }
@@ -1,69 +1,164 @@
 package com.rafaelcabanillas.sweeties.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.rafaelcabanillas.sweeties.exception.TokenRefreshException;
 import com.rafaelcabanillas.sweeties.model.*;
 import com.rafaelcabanillas.sweeties.repository.*;
+import com.rafaelcabanillas.sweeties.util.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.HexFormat;
 import java.util.UUID;
 
+/**
+ * Refresh tokens are stored as SHA-256 hashes and looked up by hash. Rotation swaps the
+ * hash in place with one UPDATE that also returns the owner's id, so a token can be
+ * redeemed exactly once and its user is then loaded by primary key. Hashes of
+ * tokens known to be dead (rotated, logged out, unknown or expired) are remembered in
+ * memory for a while, so replays and stale clients are turned away without a query;
+ * expired rows are purged in the background in bounded chunks.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    // 7 days, the same lifetime the controller gives on login
+    private static final long ROTATED_DURATION_MINUTES = 60 * 24 * 7;
+
     private final RefreshTokenRepository refreshTokenRepository;
     private final UserRepository userRepository;
+    private final TransactionTemplate transaction;
+    private final int purgeBatchSize;
+    // Hash -> true; a token hash never comes back to life, so entries can't go stale
+    private final Cache<String, Boolean> deadTokens;
+    private final Counter purged;
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   UserRepository userRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry registry,
+                                   @Value("${sweeties.auth.refresh-tokens.dead-cache-size:10000}") long deadCacheSize,
+                                   @Value("${sweeties.auth.refresh-tokens.dead-cache-ttl:PT1H}") Duration deadCacheTtl,
+                                   @Value("${sweeties.auth.refresh-tokens.purge-batch-size:1000}") int purgeBatchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.purgeBatchSize = purgeBatchSize;
+        this.deadTokens = Caffeine.newBuilder()
+                .maximumSize(deadCacheSize)
+                .expireAfterWrite(deadCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, deadTokens, "refresh-tokens-dead");
+        this.purged = Counter.builder("sweeties.auth.refresh_tokens.purged").register(registry);
+    }
 
     @Override
-    public RefreshToken createToken(User user, long durationMinutes) {
+    public IssuedToken createToken(User user, long durationMinutes) {
         String token = UUID.randomUUID().toString();
         OffsetDateTime expiresAt = OffsetDateTime.now().plusMinutes(durationMinutes);
         RefreshToken refreshToken = RefreshToken.builder()
                 .user(user)
-                .token(token)
+                .tokenHash(hash(token))
                 .expiresAt(expiresAt)
                 .build();
-        return refreshTokenRepository.save(refreshToken);
+        refreshTokenRepository.save(refreshToken);
+        return new IssuedToken(token, user);
     }
 
     @Override
     public boolean isValid(String token) {
-        return refreshTokenRepository.findByToken(token)
-                .map(rt -> rt.getExpiresAt().isAfter(OffsetDateTime.now()))
-                .orElse(false);
+        return getUserFromToken(token) != null;
     }
 
     @Override
     public User getUserFromToken(String token) {
-        return refreshTokenRepository.findByToken(token)
-                .filter(rt -> rt.getExpiresAt().isAfter(OffsetDateTime.now()))
-                .map(RefreshToken::getUser)
-                .orElse(null);
+        String hash = hash(token);
+        if (deadTokens.getIfPresent(hash) != null) {
+            return null;
+        }
+        User user = refreshTokenRepository.findUserByValidToken(hash, OffsetDateTime.now()).orElse(null);
+        if (user == null) {
+            deadTokens.put(hash, Boolean.TRUE);
+        }
+        return user;
     }
 
     @Override
     @Transactional
     public void deleteToken(String token) {
-        refreshTokenRepository.deleteByToken(token);
+        String hash = hash(token);
+        refreshTokenRepository.deleteByTokenHash(hash);
+        AfterCommit.run(() -> deadTokens.put(hash, Boolean.TRUE));
     }
 
     @Override
     @Transactional
-    public RefreshToken rotateToken(String oldToken) {
-        // 1. Find and validate the old token in one go
-        RefreshToken rt = refreshTokenRepository.findByToken(oldToken)
-                .filter(token -> token.getExpiresAt().isAfter(OffsetDateTime.now()))
-                .orElseThrow(() -> new TokenRefreshException("Token inválido o expirado"));
+    public IssuedToken rotateToken(String oldToken) {
+        String oldHash = hash(oldToken);
+        if (deadTokens.getIfPresent(oldHash) != null) {
+            throw new TokenRefreshException("Token inválido o expirado");
+        }
 
-        User user = rt.getUser();
+        OffsetDateTime now = OffsetDateTime.now();
+        String token = UUID.randomUUID().toString();
+        String newHash = hash(token);
+        Long userId = refreshTokenRepository.rotate(oldHash, newHash, now.plusMinutes(ROTATED_DURATION_MINUTES), now)
+                .orElse(null);
+        if (userId == null) {
+            deadTokens.put(oldHash, Boolean.TRUE);
+            throw new TokenRefreshException("Token inválido o expirado");
+        }
+        AfterCommit.run(() -> deadTokens.put(oldHash, Boolean.TRUE));
 
-        // 2. Delete the old one
-        refreshTokenRepository.delete(rt);
+        // The access token needs the user (role, username) anyway; loaded by primary key
+        User user = userRepository.findById(userId).orElseThrow(
+                () -> new TokenRefreshException("Token inválido o expirado"));
+        return new IssuedToken(token, user);
+    }
 
-        // 3. Create the new one (using the 7-day duration from your controller)
-        long durationMinutes = 60 * 24 * 7;
+    /**
+     * Deletes expired tokens, one short transaction per chunk so the purge never holds
+     * many row locks or a long transaction against the login path.
+     */
+    @Scheduled(fixedDelayString = "${sweeties.auth.refresh-tokens.purge-interval:PT1H}",
+            initialDelayString = "${sweeties.auth.refresh-tokens.purge-interval:PT1H}")
+    public void purgeExpired() {
+        OffsetDateTime now = OffsetDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            Integer chunk = transaction.execute(status -> refreshTokenRepository.deleteExpiredChunk(now, purgeBatchSize));
+            deleted = chunk != null ? chunk : 0;
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            purged.increment(total);
+            log.debug("Purged {} expired refresh tokens", total);
+        }
+    }
 
-        return this.createToken(user, durationMinutes);
+    static String hash(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,262 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.model.Order;
+import com.rafaelcabanillas.sweeties.model.OrderItem;
+import com.rafaelcabanillas.sweeties.model.SalesProductRollup;
+import com.rafaelcabanillas.sweeties.model.SalesRollup;
+import com.rafaelcabanillas.sweeties.model.SalesRollup.Granularity;
+import com.rafaelcabanillas.sweeties.repository.OrderRepository;
+import com.rafaelcabanillas.sweeties.repository.SalesProductRollupRepository;
+import com.rafaelcabanillas.sweeties.repository.SalesRollupBatchRepository.BucketDelta;
+import com.rafaelcabanillas.sweeties.repository.SalesRollupBatchRepository.ProductDelta;
+import com.rafaelcabanillas.sweeties.repository.SalesRollupRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the daily/monthly sales rollups in step with the orders table.
+ * <p>
+ * The record* methods join the caller's transaction, so a rollup delta commits or
+ * rolls back together with the order write. Each bucket row is bumped with an
+ * in-place {@code UPDATE ... SET x = x + ?} after an idempotent zero-row insert, which
+ * keeps concurrent orders on the same day from overwriting each other; the statements
+ * go out as JDBC batches, so an order costs the same round trips whatever its line
+ * count. Rows are always touched in the same order (DAY, MONTH, products by id) to
+ * avoid lock-order deadlocks.
+ */
+@Component
+@Slf4j
+public class SalesRollups {
+
+    private static final int BACKFILL_FLUSH_EVERY = 500;
+
+    private final SalesRollupRepository rollupRepository;
+    private final SalesProductRollupRepository productRollupRepository;
+    private final OrderRepository orderRepository;
+    private final ZoneId zone;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SalesRollups(SalesRollupRepository rollupRepository,
+                        SalesProductRollupRepository productRollupRepository,
+                        OrderRepository orderRepository,
+                        @Value("${sweeties.dashboard.zone:America/Mexico_City}") ZoneId zone) {
+        this.rollupRepository = rollupRepository;
+        this.productRollupRepository = productRollupRepository;
+        this.orderRepository = orderRepository;
+        this.zone = zone;
+    }
+
+    public ZoneId zone() {
+        return zone;
+    }
+
+    /* ------------------------- write-path deltas ------------------------- */
+
+    @Transactional
+    public void recordCreated(Order order) {
+        apply(order, 1);
+    }
+
+    @Transactional
+    public void recordDeleted(Order order) {
+        apply(order, -1);
+    }
+
+    @Transactional
+    public void recordStatusChange(Order order, Order.OrderStatus from, Order.OrderStatus to) {
+        if (from == to) return;
+        LocalDate day = dayOf(order.getCreatedAt());
+        List<BucketDelta> buckets = new ArrayList<>(2);
+        for (Granularity g : Granularity.values()) {
+            buckets.add(new BucketDelta(g, bucketStart(g, day), 0, BigDecimal.ZERO, 0,
+                    statusDelta(Order.OrderStatus.PENDIENTE, from, to),
+                    statusDelta(Order.OrderStatus.ENVIADO, from, to),
+                    statusDelta(Order.OrderStatus.ENTREGADO, from, to)));
+        }
+        rollupRepository.applyDeltas(buckets, List.of());
+    }
+
+    private void apply(Order order, int sign) {
+        LocalDate day = dayOf(order.getCreatedAt());
+        BigDecimal revenue = signed(money(order.getTotal()), sign);
+        Order.OrderStatus status = order.getStatus();
+
+        // Lines of the same product are merged; TreeMap fixes the lock order
+        Map<String, ProductTotals> lines = new TreeMap<>();
+        long units = 0;
+        if (order.getItems() != null) {
+            for (OrderItem line : order.getItems()) {
+                int qty = line.getQuantity() != null ? line.getQuantity() : 0;
+                units += qty;
+                lines.computeIfAbsent(line.getProductId(), k -> new ProductTotals())
+                        .add(qty, lineRevenue(line.getPrice(), qty));
+            }
+        }
+
+        List<BucketDelta> buckets = new ArrayList<>(2);
+        List<ProductDelta> products = new ArrayList<>(2 * lines.size());
+        for (Granularity g : Granularity.values()) {
+            LocalDate bucket = bucketStart(g, day);
+            buckets.add(new BucketDelta(g, bucket, sign, revenue, sign * units,
+                    status == Order.OrderStatus.PENDIENTE ? sign : 0,
+                    status == Order.OrderStatus.ENVIADO ? sign : 0,
+                    status == Order.OrderStatus.ENTREGADO ? sign : 0));
+            for (Map.Entry<String, ProductTotals> e : lines.entrySet()) {
+                products.add(new ProductDelta(g, bucket, e.getKey(),
+                        sign * e.getValue().units, signed(e.getValue().revenue, sign)));
+            }
+        }
+        rollupRepository.applyDeltas(buckets, products);
+    }
+
+    /* ------------------------------ backfill ----------------------------- */
+
+    /** Builds the rollups from the existing order history on first start after the migration. */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() == 0 && orderRepository.count() > 0) {
+            log.info("Sales rollups are empty; backfilling from order history");
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes every rollup row from the orders table in one transaction. Streams the
+     * order lines from a cursor; memory is bounded by the number of buckets, not orders.
+     * Orders written while this runs may be missed; run it when the shop is quiet.
+     */
+    @Transactional
+    public void rebuild() {
+        long start = System.nanoTime();
+        Map<SalesRollup.Key, SalesRollup> totals = new HashMap<>();
+        Map<SalesProductRollup.Key, SalesProductRollup> products = new HashMap<>();
+        long orders = 0;
+
+        try (Stream<Object[]> rows = orderRepository.streamOrderLines()) {
+            Long currentOrder = null;
+            Iterator<Object[]> it = rows.iterator();
+            while (it.hasNext()) {
+                Object[] row = it.next();
+                Long orderId = (Long) row[0];
+                LocalDate day = dayOf((OffsetDateTime) row[1]);
+                Order.OrderStatus status = (Order.OrderStatus) row[2];
+                String productId = (String) row[4];
+                int qty = row[5] != null ? (Integer) row[5] : 0;
+
+                boolean firstLineOfOrder = !orderId.equals(currentOrder);
+                if (firstLineOfOrder) {
+                    currentOrder = orderId;
+                    orders++;
+                }
+                for (Granularity g : Granularity.values()) {
+                    LocalDate bucket = bucketStart(g, day);
+                    SalesRollup total = totals.computeIfAbsent(new SalesRollup.Key(g, bucket),
+                            k -> SalesRollup.builder().id(k).build());
+                    if (firstLineOfOrder) {
+                        total.setOrderCount(total.getOrderCount() + 1);
+                        total.setRevenue(total.getRevenue().add(money((Double) row[3])));
+                        switch (status) {
+                            case PENDIENTE -> total.setPendingCount(total.getPendingCount() + 1);
+                            case ENVIADO -> total.setShippedCount(total.getShippedCount() + 1);
+                            case ENTREGADO -> total.setDeliveredCount(total.getDeliveredCount() + 1);
+                        }
+                    }
+                    if (productId != null) {
+                        total.setUnits(total.getUnits() + qty);
+                        SalesProductRollup product = products.computeIfAbsent(
+                                new SalesProductRollup.Key(g, bucket, productId),
+                                k -> SalesProductRollup.builder().id(k).build());
+                        product.setUnits(product.getUnits() + qty);
+                        product.setRevenue(product.getRevenue().add(lineRevenue((Double) row[6], qty)));
+                    }
+                }
+            }
+        }
+
+        productRollupRepository.deleteAllRows();
+        rollupRepository.deleteAllRows();
+        // Bulk deletes bypass the persistence context; drop any rollup rows it still holds
+        entityManager.clear();
+        // persist, not save(): the ids are assigned, and save() would SELECT each row first
+        int pending = 0;
+        for (Object row : totals.values()) {
+            pending = persist(row, pending);
+        }
+        for (Object row : products.values()) {
+            pending = persist(row, pending);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        log.info("Sales rollups rebuilt from {} orders: {} bucket rows, {} product rows in {} ms",
+                orders, totals.size(), products.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private int persist(Object row, int pending) {
+        entityManager.persist(row);
+        if (++pending % BACKFILL_FLUSH_EVERY == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return pending;
+    }
+
+    /* ------------------------------ helpers ------------------------------ */
+
+    LocalDate dayOf(OffsetDateTime createdAt) {
+        OffsetDateTime at = createdAt != null ? createdAt : OffsetDateTime.now();
+        return at.atZoneSameInstant(zone).toLocalDate();
+    }
+
+    static LocalDate bucketStart(Granularity granularity, LocalDate day) {
+        return granularity == Granularity.MONTH ? day.withDayOfMonth(1) : day;
+    }
+
+    private static long statusDelta(Order.OrderStatus status, Order.OrderStatus from, Order.OrderStatus to) {
+        return (to == status ? 1 : 0) - (from == status ? 1 : 0);
+    }
+
+    private static BigDecimal money(Double amount) {
+        return amount != null ? BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal lineRevenue(Double price, int qty) {
+        return money(price).multiply(BigDecimal.valueOf(qty));
+    }
+
+    private static BigDecimal signed(BigDecimal amount, int sign) {
+        return sign < 0 ? amount.negate() : amount;
+    }
+
+    private static final class ProductTotals {
+        long units;
+        BigDecimal revenue = BigDecimal.ZERO;
+
+        void add(int qty, BigDecimal lineRevenue) {
+            units += qty;
+            revenue = revenue.add(lineRevenue);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.dto.ThemeDTO;
+import com.rafaelcabanillas.sweeties.model.Theme;
+import com.rafaelcabanillas.sweeties.repository.ThemeRepository;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Every theme, loaded at startup and held as an immutable snapshot indexed by id and
+ * name, so listing themes or resolving a user's theme is a map lookup. Themes are only
+ * written outside the API (migrations, manual SQL); a periodic reload picks those
+ * changes up and bumps the themes ETag when anything differs.
+ */
+@Component
+@Slf4j
+public class ThemeRegistry {
+
+    private final ThemeRepository themeRepository;
+    private final ResourceVersions resourceVersions;
+
+    // Replaced wholesale, never mutated; the DTOs are shared by every caller
+    private volatile Snapshot snapshot;
+    // Serializes reloads without pinning the virtual threads that queue behind one
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public ThemeRegistry(ThemeRepository themeRepository, ResourceVersions resourceVersions, MeterRegistry registry) {
+        this.themeRepository = themeRepository;
+        this.resourceVersions = resourceVersions;
+        Gauge.builder("sweeties.themes.size", this, r -> {
+            Snapshot current = r.snapshot;
+            return current != null ? current.themes().size() : 0;
+        }).register(registry);
+    }
+
+    /** All themes ordered by id. */
+    public List<ThemeDTO> all() {
+        return current().themes();
+    }
+
+    public Optional<ThemeDTO> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(current().byId().get(id));
+    }
+
+    public Optional<ThemeDTO> findByName(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(current().byName().get(name));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reload();
+    }
+
+    /** Re-reads the themes table; call after writing themes, or let the schedule catch it. */
+    @Scheduled(fixedDelayString = "${sweeties.themes.refresh:PT10M}",
+            initialDelayString = "${sweeties.themes.refresh:PT10M}")
+    public void reload() {
+        reloadLock.lock();
+        try {
+            Snapshot loaded = Snapshot.of(themeRepository.findAll(Sort.by("id")).stream()
+                    .map(ThemeRegistry::toThemeDTO)
+                    .toList());
+            Snapshot previous = snapshot;
+            if (previous != null && !previous.themes().equals(loaded.themes())) {
+                resourceVersions.bump(ResourceVersions.Resource.THEMES);
+                log.info("Themes changed; reloaded {} themes", loaded.themes().size());
+            }
+            snapshot = loaded;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot snap = snapshot;
+        if (snap == null) {
+            reload();
+            snap = snapshot;
+        }
+        return snap;
+    }
+
+    private static ThemeDTO toThemeDTO(Theme theme) {
+        return ThemeDTO.builder()
+                .id(theme.getId())
+                .name(theme.getName())
+                .isDark(theme.isDark())
+                .primaryColor(theme.getPrimaryColor())
+                .accentColor(theme.getAccentColor())
+                .backgroundColor(theme.getBackgroundColor())
+                .textColor(theme.getTextColor())
+                .cardColor(theme.getCardColor())
+                .buttonColor(theme.getButtonColor())
+                .navColor(theme.getNavColor())
+                .build();
+    }
+
+    private record Snapshot(List<ThemeDTO> themes, Map<Long, ThemeDTO> byId, Map<String, ThemeDTO> byName) {
+        static Snapshot of(List<ThemeDTO> themes) {
+            Map<Long, ThemeDTO> byId = new HashMap<>(themes.size() * 2);
+            Map<String, ThemeDTO> byName = new HashMap<>(themes.size() * 2);
+            for (ThemeDTO theme : themes) {
+                byId.put(theme.getId(), theme);
+                byName.put(theme.getName(), theme);
+            }
+            return new Snapshot(List.copyOf(themes), Map.copyOf(byId), Map.copyOf(byName));
+        }
+    }
+}
@@ -3,9 +3,7 @@ package com.rafaelcabanillas.sweeties.service;
 import com.rafaelcabanillas.sweeties.dto.ThemeDTO;
 import com.rafaelcabanillas.sweeties.dto.UserDTO;
 import com.rafaelcabanillas.sweeties.exception.ResourceNotFoundException;
-import com.rafaelcabanillas.sweeties.model.Theme;
 import com.rafaelcabanillas.sweeties.model.User;
-import com.rafaelcabanillas.sweeties.repository.ThemeRepository;
 import com.rafaelcabanillas.sweeties.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -17,14 +15,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ThemeServiceImpl implements ThemeService {
 
-    private final ThemeRepository themeRepository;
+    private final ThemeRegistry themeRegistry;
     private final UserRepository userRepository;
 
     @Override
     public List<ThemeDTO> getAllThemes() {
-        return themeRepository.findAll().stream()
-                .map(this::toThemeDTO)
-                .toList();
+        return themeRegistry.all();
     }
 
     @Override
@@ -33,10 +29,10 @@ public class ThemeServiceImpl implements ThemeService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
 
-        Theme theme = themeRepository.findById(themeId)
+        ThemeDTO theme = themeRegistry.findById(themeId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tema no encontrado"));
 
-        user.setTheme(theme);
+        user.setThemeId(theme.getId());
         userRepository.save(user);
 
         return toUserDTO(user);
@@ -44,21 +40,6 @@ public class ThemeServiceImpl implements ThemeService {
 
     // --- Mappers ---
 
-    private ThemeDTO toThemeDTO(Theme theme) {
-        return ThemeDTO.builder()
-                .id(theme.getId())
-                .name(theme.getName())
-                .isDark(theme.isDark())
-                .primaryColor(theme.getPrimaryColor())
-                .accentColor(theme.getAccentColor())
-                .backgroundColor(theme.getBackgroundColor())
-                .textColor(theme.getTextColor())
-                .cardColor(theme.getCardColor())
-                .buttonColor(theme.getButtonColor())
-                .navColor(theme.getNavColor())
-                .build();
-    }
-
     // NOTE: You likely already have this in UserServiceImpl.
     // Ideally, you should share a single UserMapper component,
     // but for now we can duplicate the simple mapping here or inject UserService.
@@ -73,7 +54,7 @@ public class ThemeServiceImpl implements ThemeService {
                 .imageUrl(user.getImageUrl())
                 .imagePublicId(user.getImagePublicId())
                 // Map the Theme ID if it exists
-                .themeId(user.getTheme() != null ? user.getTheme().getId() : null)
+                .themeId(user.getThemeId())
                 .build();
     }
 }
\ No newline at end of file
@@ -14,6 +14,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final DashboardCounters dashboardCounters;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     @Override
@@ -30,6 +31,7 @@ public class UserServiceImpl implements UserService {
                 .build();
 
         userRepository.save(user);
+        dashboardCounters.userCreated();
         return toUserDTO(user);
     }
 
@@ -84,6 +86,7 @@ public class UserServiceImpl implements UserService {
             throw new ResourceNotFoundException("El usuario no existe");
         }
         userRepository.deleteById(id);
+        dashboardCounters.userDeleted();
     }
 
     @Override
@@ -101,7 +104,7 @@ public class UserServiceImpl implements UserService {
                 .bio(user.getBio())
                 .imageUrl(user.getImageUrl())
                 .imagePublicId(user.getImagePublicId())
-                .themeId(user.getTheme() != null ? user.getTheme().getId() : null)
+                .themeId(user.getThemeId())
                 .build();
     }
 }
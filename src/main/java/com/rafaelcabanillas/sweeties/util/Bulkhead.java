@@ -0,0 +1,80 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps concurrent calls to one downstream dependency. On virtual threads a request no
+ * longer waits for a free worker thread, so without a cap a burst of requests becomes a
+ * burst of outbound calls; here callers beyond the limit queue in arrival order for up
+ * to {@code timeout} and are then refused with a 503.
+ */
+public class Bulkhead {
+
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private final String name;
+    private final int limit;
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    private final Counter rejected;
+
+    public Bulkhead(String name, int limit, Duration timeout, MeterRegistry registry) {
+        this.name = name;
+        this.limit = limit;
+        this.permits = new Semaphore(limit, true);
+        this.timeoutNanos = timeout.toNanos();
+        this.rejected = Counter.builder("sweeties.bulkhead.rejected").tag("name", name).register(registry);
+        Gauge.builder("sweeties.bulkhead.active", permits, p -> limit - p.availablePermits())
+                .tag("name", name).register(registry);
+        Gauge.builder("sweeties.bulkhead.waiting", permits, Semaphore::getQueueLength)
+                .tag("name", name).register(registry);
+    }
+
+    public <T, E extends Exception> T call(Call<T, E> call) throws E {
+        if (!tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Servicio ocupado (" + name + "), intenta de nuevo en unos segundos");
+        }
+        try {
+            return call.call();
+        } finally {
+            release();
+        }
+    }
+
+    /** Waits up to the timeout for a permit; false (and counted) if none came free. */
+    public boolean tryAcquire() {
+        try {
+            if (permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int limit() {
+        return limit;
+    }
+}
@@ -3,36 +3,88 @@ package com.rafaelcabanillas.sweeties.util;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import com.cloudinary.Transformation;
-import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Cloudinary uploads/deletes. Files are handed to the SDK as {@link File}s so the HTTP
+ * client streams them from disk instead of buffering whole images on the heap, and
+ * multi-file uploads run concurrently on a bounded pool. Every SDK call, from any
+ * request, goes through one {@link Bulkhead} sized to the HTTP connection pool.
+ */
 @Service
-public class CloudinaryService {
+@Slf4j
+public class CloudinaryService implements DisposableBean {
 
-    @Value("${cloudinary.cloud_name}")
-    private String cloudName;
+    private final Cloudinary cloudinary;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final ExecutorService uploadExecutor;
+    private final Bulkhead bulkhead;
+    private final Timer uploadSuccess;
+    private final Timer uploadFailure;
+    private final Timer destroySuccess;
+    private final Timer destroyFailure;
 
-    @Value("${cloudinary.api_key}")
-    private String apiKey;
+    /** One file to upload under an explicit publicId. */
+    public record Upload(MultipartFile file, String folder, String publicId) {}
 
-    @Value("${cloudinary.api_secret}")
-    private String apiSecret;
+    public CloudinaryService(MeterRegistry registry,
+                             @Value("${cloudinary.cloud_name}") String cloudName,
+                             @Value("${cloudinary.api_key}") String apiKey,
+                             @Value("${cloudinary.api_secret}") String apiSecret,
+                             @Value("${cloudinary.upload_prefix:}") String uploadPrefix,
+                             @Value("${cloudinary.upload-parallelism:4}") int parallelism,
+                             @Value("${cloudinary.max-concurrent:8}") int maxConcurrent,
+                             @Value("${cloudinary.acquire-timeout:PT10S}") Duration acquireTimeout,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // The SDK's default client allows only a couple of connections per host;
+        // the bulkhead never lets more calls through than there are connections
+        int connections = Math.max(parallelism * 2, maxConcurrent);
+        this.connectionManager = new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(connections);
+        connectionManager.setDefaultMaxPerRoute(connections);
+        this.bulkhead = new Bulkhead("cloudinary", maxConcurrent, acquireTimeout, registry);
 
-    private Cloudinary cloudinary;
-
-    @PostConstruct
-    public void init() {
-        this.cloudinary = new Cloudinary(ObjectUtils.asMap(
+        Map<String, Object> config = new HashMap<>(ObjectUtils.asMap(
                 "cloud_name", cloudName,
                 "api_key", apiKey,
-                "api_secret", apiSecret
+                "api_secret", apiSecret,
+                "connectionManager", connectionManager
         ));
+        // Only set for local fakes (tests, load tests); defaults to https://api.cloudinary.com
+        if (uploadPrefix != null && !uploadPrefix.isBlank()) {
+            config.put("upload_prefix", uploadPrefix);
+        }
+        this.cloudinary = new Cloudinary(config);
+
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("cloudinary-upload-", 1).factory()
+                : Thread.ofPlatform().name("cloudinary-upload-", 1).daemon(true).factory();
+        this.uploadExecutor = Executors.newFixedThreadPool(parallelism, threadFactory);
+        this.uploadSuccess = Timer.builder("sweeties.cloudinary.upload").tag("outcome", "success").register(registry);
+        this.uploadFailure = Timer.builder("sweeties.cloudinary.upload").tag("outcome", "failure").register(registry);
+        this.destroySuccess = Timer.builder("sweeties.cloudinary.destroy").tag("outcome", "success").register(registry);
+        this.destroyFailure = Timer.builder("sweeties.cloudinary.destroy").tag("outcome", "failure").register(registry);
     }
 
     /* ---------------------------- Upload (single) ---------------------------- */
@@ -71,7 +123,24 @@ public class CloudinaryService {
         options.put("transformation", tx);
 
         options.remove("transformation");
-        return cloudinary.uploader().upload(file.getBytes(), options);
+
+        long start = System.nanoTime();
+        // The multipart part already sits in a servlet temp file; transferTo moves it
+        // (or streams it) to a file we own, which the SDK uploads without a heap copy
+        Path tmp = Files.createTempFile("sweeties-upload-", ".img");
+        try {
+            file.transferTo(tmp.toFile());
+            Map<String, Object> result = bulkhead.call(() -> cloudinary.uploader().upload(tmp.toFile(), options));
+            long elapsed = System.nanoTime() - start;
+            uploadSuccess.record(elapsed, TimeUnit.NANOSECONDS);
+            log.debug("Uploaded {} ({} bytes) in {} ms", publicId, file.getSize(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return result;
+        } catch (IOException | RuntimeException e) {
+            uploadFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
     }
 
     /** Upload and auto-generate a safe publicId with a prefix/slug. */
@@ -92,11 +161,79 @@ public class CloudinaryService {
             String folder,
             String prefixSlug
     ) throws IOException {
-        List<Map<String, Object>> results = new ArrayList<>(files.size());
+        List<Upload> uploads = new ArrayList<>(files.size());
         for (MultipartFile f : files) {
-            results.add(uploadFileAutoId(f, folder, prefixSlug));
+            uploads.add(new Upload(f, folder, buildPublicId(prefixSlug)));
         }
-        return results;
+        return uploadAll(uploads);
+    }
+
+    /**
+     * Uploads concurrently (bounded by {@code cloudinary.upload-parallelism}); results keep
+     * the input order. All-or-nothing: once one upload fails, queued uploads are skipped,
+     * in-flight ones are awaited, every asset that did make it is deleted again, and the
+     * first failure is rethrown.
+     */
+    public List<Map<String, Object>> uploadAll(List<Upload> uploads) throws IOException {
+        if (uploads.size() == 1) {
+            Upload u = uploads.get(0);
+            return List.of(uploadFile(u.file(), u.folder(), u.publicId()));
+        }
+
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<Future<Map<String, Object>>> futures = new ArrayList<>(uploads.size());
+        for (Upload u : uploads) {
+            futures.add(uploadExecutor.submit(() -> {
+                if (aborted.get()) return null;
+                try {
+                    return uploadFile(u.file(), u.folder(), u.publicId());
+                } catch (IOException | RuntimeException e) {
+                    aborted.set(true);
+                    throw e;
+                }
+            }));
+        }
+
+        // Wait for every task, even after a failure, so nothing is still uploading when we clean up
+        List<Map<String, Object>> results = new ArrayList<>(uploads.size());
+        Throwable failure = null;
+        for (Future<Map<String, Object>> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) failure = e.getCause();
+                results.add(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                aborted.set(true);
+                failure = e;
+                break;
+            }
+        }
+        if (failure == null) {
+            return results;
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            Map<String, Object> uploaded = results.get(i);
+            if (uploaded == null) continue;
+            String publicId = Objects.toString(uploaded.get("public_id"), uploads.get(i).publicId());
+            try {
+                deleteFile(publicId, true);
+            } catch (Exception e) {
+                log.warn("Could not delete orphaned upload {}: {}", publicId, e.getMessage());
+            }
+        }
+
+        if (failure instanceof IOException io) throw io;
+        if (failure instanceof RuntimeException re) throw re;
+        throw new IOException("Cloudinary upload interrupted", failure);
+    }
+
+    @Override
+    public void destroy() {
+        uploadExecutor.shutdownNow();
+        connectionManager.shutdown();
     }
 
     /* ----------------------------- Deletions -------------------------------- */
@@ -107,7 +244,15 @@ public class CloudinaryService {
 
     public Map<String, Object> deleteFile(String publicId, boolean invalidate) throws IOException {
         Map<String, Object> options = ObjectUtils.asMap("invalidate", invalidate);
-        return cloudinary.uploader().destroy(publicId, options);
+        long start = System.nanoTime();
+        try {
+            Map<String, Object> result = bulkhead.call(() -> cloudinary.uploader().destroy(publicId, options));
+            destroySuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            destroyFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
     }
 
     /** Bulk delete by publicIds. */
@@ -126,7 +271,7 @@ public class CloudinaryService {
     /** Rename (move) an asset’s publicId (within/between folders). */
     public Map<String, Object> rename(String fromPublicId, String toPublicId, boolean overwrite) throws IOException {
         Map<String, Object> options = ObjectUtils.asMap("overwrite", overwrite, "invalidate", true);
-        return cloudinary.uploader().rename(fromPublicId, toPublicId, options);
+        return bulkhead.call(() -> cloudinary.uploader().rename(fromPublicId, toPublicId, options));
     }
 
     /** Try to extract a publicId from a standard Cloudinary URL. */
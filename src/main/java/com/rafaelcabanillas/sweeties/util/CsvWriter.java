@@ -0,0 +1,80 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minimal RFC 4180 row writer: fields are quoted only when they contain a
+ * separator, quote or line break, so the common case is a straight copy.
+ */
+public class CsvWriter {
+
+    private final Writer out;
+    private boolean firstField = true;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        separator();
+        if (value == null) return this;
+        if (needsQuoting(value)) {
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') out.write('"');
+                out.write(c);
+            }
+            out.write('"');
+        } else {
+            out.write(value);
+        }
+        return this;
+    }
+
+    public CsvWriter field(Long value) throws IOException {
+        separator();
+        if (value != null) out.write(Long.toString(value));
+        return this;
+    }
+
+    /** Writes a monetary value with two decimals, independent of the JVM locale. */
+    public CsvWriter money(Double value) throws IOException {
+        separator();
+        if (value == null) return this;
+        long cents = Math.round(value * 100);
+        if (cents < 0) {
+            out.write('-');
+            cents = -cents;
+        }
+        out.write(Long.toString(cents / 100));
+        out.write('.');
+        long fraction = cents % 100;
+        if (fraction < 10) out.write('0');
+        out.write(Long.toString(fraction));
+        return this;
+    }
+
+    public void endRow() throws IOException {
+        out.write('\n');
+        firstField = true;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    private void separator() throws IOException {
+        if (!firstField) out.write(',');
+        firstField = false;
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
@@ -37,4 +37,9 @@ public class JwtUtil {
                 .signWith(KEY, SignatureAlgorithm.HS256)
                 .compact();
     }
+
+    /** The HS256 key tokens are signed with; also what incoming tokens are verified against. */
+    public Key signingKey() {
+        return KEY;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Version stamps for the publicly polled read resources, bumped by their write paths.
+ * Conditional GETs are answered from the stamp alone: a matching {@code If-None-Match}
+ * (or an unchanged {@code If-Modified-Since}) gets a 304 without building the body.
+ * <p>
+ * Stamps are per instance; the ETag carries this instance's start time so a tag issued
+ * by one instance (or before a restart) never validates against another.
+ */
+@Component
+public class ResourceVersions {
+
+    public enum Resource { CATALOG, THEMES, PUBLIC_SETTINGS }
+
+    public record Version(String etag, Instant lastModified) {}
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Resource, AtomicReference<Stamp>> stamps = new EnumMap<>(Resource.class);
+
+    private record Stamp(long counter, Instant lastModified) {}
+
+    public ResourceVersions() {
+        // HTTP dates have second precision; truncating keeps If-Modified-Since comparisons exact
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        for (Resource r : Resource.values()) {
+            stamps.put(r, new AtomicReference<>(new Stamp(0, now)));
+        }
+    }
+
+    public Version current(Resource resource) {
+        Stamp s = stamps.get(resource).get();
+        return new Version("\"" + resource.ordinal() + "-" + epoch + "-" + s.counter() + "\"", s.lastModified());
+    }
+
+    /** Marks the resource as changed; call after the write has committed. */
+    public void bump(Resource resource) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        // Strictly increasing, so a client that read between two writes in the same second
+        // cannot get a 304 from If-Modified-Since alone
+        stamps.get(resource).updateAndGet(s -> new Stamp(s.counter() + 1,
+                now.isAfter(s.lastModified()) ? now : s.lastModified().plusSeconds(1)));
+    }
+
+    /**
+     * 304 if the client's copy is current, otherwise 200 with the body. The version is
+     * read before the body is built, so a write racing with the read can only make the
+     * tag older than the body (a spare 200 later), never newer.
+     */
+    public <T> ResponseEntity<T> conditionalGet(WebRequest request, Resource resource, Supplier<T> body) {
+        Version v = current(resource);
+        // no-cache: browsers and the CDN may store the body but must revalidate each time
+        CacheControl cacheControl = CacheControl.noCache();
+        if (request.checkNotModified(v.etag(), v.lastModified().toEpochMilli())) {
+            // checkNotModified already wrote ETag and Last-Modified; repeating them would duplicate the headers
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(v.etag())
+                .lastModified(v.lastModified())
+                .cacheControl(cacheControl)
+                .body(body.get());
+    }
+}
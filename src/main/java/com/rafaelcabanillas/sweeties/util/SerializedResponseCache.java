@@ -0,0 +1,181 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions.Resource;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions.Version;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response bodies for the hot public GETs, kept as ready-to-write JSON bytes plus a gzip
+ * copy. An entry is tied to its resource's {@link ResourceVersions} stamp: a write bumps
+ * the stamp and the next request re-serializes and re-compresses once, every other
+ * request just writes the stored bytes.
+ * <p>
+ * Serving from an entry never calls the resource's own loader. Changes made on other
+ * instances therefore only show up once that resource's scheduled refresh bumps the
+ * stamp, e.g. {@code ItemServiceImpl.refreshCatalog} for the catalog.
+ * <p>
+ * The gzip variant gets its own strong ETag ({@code "...-gz"}) since its bytes differ,
+ * and responses carry {@code Vary: Accept-Encoding} so shared caches keep them apart.
+ */
+@Component
+public class SerializedResponseCache {
+
+    private static final String GZIP = "gzip";
+
+    private final ResourceVersions resourceVersions;
+    private final ObjectMapper objectMapper;
+    // Per key: the entry for one version, completed once built; concurrent misses wait on it
+    private final ConcurrentMap<String, Slot> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private record Entry(byte[] json, byte[] gzip) {}
+
+    private record Slot(String etag, CompletableFuture<Entry> entry) {}
+
+    public SerializedResponseCache(ResourceVersions resourceVersions, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.resourceVersions = resourceVersions;
+        this.objectMapper = objectMapper;
+        this.hits = Counter.builder("sweeties.cache.responses.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("sweeties.cache.responses.requests").tag("result", "miss").register(registry);
+    }
+
+    /**
+     * 304 if the client's copy is current, otherwise 200 with the cached bytes for
+     * {@code key}, gzipped when the client accepts it. {@code body} is only called when
+     * the resource changed since the entry was built.
+     */
+    public ResponseEntity<byte[]> get(WebRequest request, Resource resource, String key, Supplier<?> body) {
+        Version v = resourceVersions.current(resource);
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? v.etag().substring(0, v.etag().length() - 1) + "-gz\"" : v.etag();
+        CacheControl cacheControl = CacheControl.noCache();
+
+        if (request.checkNotModified(etag, v.lastModified().toEpochMilli())) {
+            // checkNotModified already wrote ETag and Last-Modified; repeating them would duplicate the headers
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        Entry entry = entry(key, v.etag(), body);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .lastModified(v.lastModified())
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(entry.gzip());
+        }
+        return response.body(entry.json());
+    }
+
+    /**
+     * The entry for {@code key} at {@code etag}. One request per key and version builds it,
+     * outside any map lock (the catalog body is a database load); concurrent requests for
+     * the same version wait on that build's future.
+     */
+    private Entry entry(String key, String etag, Supplier<?> body) {
+        while (true) {
+            Slot slot = entries.get(key);
+            if (slot != null && slot.etag().equals(etag)) {
+                hits.increment();
+                return await(slot.entry());
+            }
+            Slot mine = new Slot(etag, new CompletableFuture<>());
+            boolean claimed = slot == null ? entries.putIfAbsent(key, mine) == null : entries.replace(key, slot, mine);
+            if (!claimed) {
+                continue; // another request swapped the slot first; re-read it
+            }
+            misses.increment();
+            try {
+                Entry built = build(body.get());
+                mine.entry().complete(built);
+                return built;
+            } catch (RuntimeException e) {
+                // Waiters see the same failure; the next request tries again
+                entries.remove(key, mine);
+                mine.entry().completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Entry build(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new Entry(json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response body could not be serialized", e);
+        }
+    }
+
+    static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /** True if {@code Accept-Encoding} lists gzip (or *) without {@code q=0}. */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase(GZIP) && !coding.equalsIgnoreCase("x-gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,185 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements each request runs (see {@link SqlStatementTracker}) against
+ * the endpoint's budget from {@code sweeties.sql-budget}. Every response carries
+ * {@code X-Sql-Count} and {@code X-Sql-Time} (milliseconds), and the same values are
+ * left in the {@code sweeties.sql.count} / {@code sweeties.sql.time} request attributes
+ * for the access log. An overrun is logged with the statements that ran, so an N+1
+ * shows up as one statement repeated many times. Runs ahead of the security filter
+ * chain, so requests it rejects (401, 403, 429) report their count too.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+@Slf4j
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_HEADER = "X-Sql-Count";
+    public static final String TIME_HEADER = "X-Sql-Time";
+    static final String COUNT_ATTRIBUTE = "sweeties.sql.count";
+    static final String TIME_ATTRIBUTE = "sweeties.sql.time";
+
+    private record Budget(String name, String method, PathPattern path, int maxStatements) {}
+
+    private final boolean enabled;
+    private final boolean enforce;
+    private final boolean headers;
+    private final int defaultMaxStatements;
+    private final List<Budget> budgets = new ArrayList<>();
+    private final MeterRegistry registry;
+
+    public SqlBudgetFilter(SqlBudgetProperties properties, MeterRegistry registry) {
+        this.enabled = properties.enabled();
+        this.enforce = properties.mode() == SqlBudgetProperties.Mode.ENFORCE;
+        this.headers = properties.headers();
+        this.defaultMaxStatements = properties.defaultMaxStatements();
+        this.registry = registry;
+        if (properties.endpoints() != null) {
+            properties.endpoints().forEach((name, endpoint) -> budgets.add(new Budget(name,
+                    endpoint.method() == null ? "*" : endpoint.method().toUpperCase(),
+                    PathPatternParser.defaultInstance.parse(endpoint.path()),
+                    endpoint.maxStatements())));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws ServletException, IOException {
+        Budget budget = budgetFor(req);
+        SqlStatementTracker.Tally tally = budget != null
+                ? SqlStatementTracker.start(budget.name(), budget.maxStatements(), enforce)
+                : SqlStatementTracker.start("default", defaultMaxStatements, enforce);
+        HeadersOnCommit response = headers ? new HeadersOnCommit(res, tally) : null;
+        try {
+            chain.doFilter(req, response != null ? response : res);
+        } finally {
+            SqlStatementTracker.stop();
+            if (response != null) response.writeHeaders();
+            report(req, res, tally);
+        }
+    }
+
+    private Budget budgetFor(HttpServletRequest request) {
+        if (budgets.isEmpty()) return null;
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (Budget budget : budgets) {
+            if ((budget.method().equals("*") || budget.method().equals(request.getMethod())) && budget.path().matches(path)) {
+                return budget;
+            }
+        }
+        return null;
+    }
+
+    private void report(HttpServletRequest req, HttpServletResponse res, SqlStatementTracker.Tally tally) {
+        String time = millis(tally.nanos());
+        req.setAttribute(COUNT_ATTRIBUTE, tally.statements());
+        req.setAttribute(TIME_ATTRIBUTE, time);
+
+        Object pattern = req.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("sweeties.sql.statements").tag("uri", uri).register(registry).record(tally.statements());
+        Timer.builder("sweeties.sql.time").tag("uri", uri).register(registry).record(tally.nanos(), TimeUnit.NANOSECONDS);
+
+        log.debug("{} {} -> {}: {} statements, {} ms in the database",
+                req.getMethod(), req.getRequestURI(), res.getStatus(), tally.statements(), time);
+        if (tally.exceeded()) {
+            Counter.builder("sweeties.sql.budget.exceeded").tag("endpoint", tally.endpoint()).register(registry).increment();
+            log.warn("SQL budget exceeded on {} {} ({}): {} statements, budget {}. Statements run:\n{}",
+                    req.getMethod(), req.getRequestURI(), tally.endpoint(), tally.statements(), tally.budget(), tally.shapes());
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * Sets the headers just before the body starts, when controllers have usually done
+     * their queries; a response that streams while it queries (the CSV export) reports
+     * the statements run up to its first byte.
+     */
+    private static final class HeadersOnCommit extends HttpServletResponseWrapper {
+        private final SqlStatementTracker.Tally tally;
+        private boolean written;
+
+        HeadersOnCommit(HttpServletResponse response, SqlStatementTracker.Tally tally) {
+            super(response);
+            this.tally = tally;
+        }
+
+        void writeHeaders() {
+            if (written || isCommitted()) return;
+            written = true;
+            setHeader(COUNT_HEADER, Integer.toString(tally.statements()));
+            setHeader(TIME_HEADER, millis(tally.nanos()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * {@code sweeties.sql-budget}: how many JDBC statements one request may run. Endpoints
+ * are matched in declaration order by method and path pattern; anything unmatched gets
+ * {@code default-max-statements}. In {@code WARN} mode an overrun is logged with the
+ * statements that ran; {@code ENFORCE} (for tests) fails the statement that overruns.
+ */
+@ConfigurationProperties("sweeties.sql-budget")
+public record SqlBudgetProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("WARN") Mode mode,
+        @DefaultValue("30") int defaultMaxStatements,
+        // X-Sql-Count / X-Sql-Time on every response
+        @DefaultValue("true") boolean headers,
+        Map<String, Endpoint> endpoints) {
+
+    public enum Mode { WARN, ENFORCE }
+
+    // method null or "*" matches any method
+    public record Endpoint(String method, String path, int maxStatements) {}
+}
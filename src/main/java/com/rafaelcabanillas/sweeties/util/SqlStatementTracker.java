@@ -0,0 +1,118 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Counts and times the JDBC statements run on the current thread between {@link #start}
+ * and {@link #stop}, as seen at the DataSource (a batch counts once, as one round trip).
+ * Registered as a datasource-proxy listener; threads with no tally open pay one
+ * thread-local read per statement.
+ */
+public final class SqlStatementTracker implements QueryExecutionListener {
+
+    private static final ThreadLocal<Tally> CURRENT = new ThreadLocal<>();
+    // Enough to spot an N+1 in the log without dumping a whole export
+    private static final int MAX_SHAPES = 20;
+    private static final int MAX_SHAPE_LENGTH = 200;
+
+    public static final class Tally {
+        private final String endpoint;
+        private final int budget;
+        private final boolean enforce;
+        private final Map<String, Integer> shapes = new LinkedHashMap<>();
+        private int statements;
+        private long nanos;
+        private long startedAt;
+
+        private Tally(String endpoint, int budget, boolean enforce) {
+            this.endpoint = endpoint;
+            this.budget = budget;
+            this.enforce = enforce;
+        }
+
+        public String endpoint() {
+            return endpoint;
+        }
+
+        public int budget() {
+            return budget;
+        }
+
+        public int statements() {
+            return statements;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public boolean exceeded() {
+            return statements > budget;
+        }
+
+        /** Distinct statements, most frequent first, one per line with its count. */
+        public String shapes() {
+            return shapes.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                    .map(e -> "  " + e.getValue() + "x " + e.getKey())
+                    .collect(Collectors.joining("\n"));
+        }
+
+        private void record(String shape) {
+            if (shapes.containsKey(shape) || shapes.size() < MAX_SHAPES) {
+                shapes.merge(shape, 1, Integer::sum);
+            }
+        }
+    }
+
+    /** Opens a tally on this thread; in enforce mode the statement past {@code budget} fails. */
+    public static Tally start(String endpoint, int budget, boolean enforce) {
+        Tally tally = new Tally(endpoint, budget, enforce);
+        CURRENT.set(tally);
+        return tally;
+    }
+
+    public static Tally stop() {
+        Tally tally = CURRENT.get();
+        CURRENT.remove();
+        return tally;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo info, List<QueryInfo> queries) {
+        Tally tally = CURRENT.get();
+        if (tally == null) return;
+        if (tally.enforce && tally.statements >= tally.budget) {
+            // Counted although it never runs, so the report shows the overrun
+            tally.statements++;
+            tally.record(shape(queries));
+            throw new IllegalStateException("SQL budget of " + tally.budget + " statements exceeded on "
+                    + tally.endpoint + ":\n" + tally.shapes());
+        }
+        tally.startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo info, List<QueryInfo> queries) {
+        Tally tally = CURRENT.get();
+        if (tally == null) return;
+        tally.statements++;
+        tally.nanos += System.nanoTime() - tally.startedAt;
+        tally.record(shape(queries));
+    }
+
+    /** The statement text with whitespace collapsed; Hibernate already binds values as ?. */
+    static String shape(List<QueryInfo> queries) {
+        if (queries.isEmpty()) return "?";
+        String sql = queries.get(0).getQuery().strip().replaceAll("\\s+", " ");
+        return sql.length() > MAX_SHAPE_LENGTH ? sql.substring(0, MAX_SHAPE_LENGTH) + "..." : sql;
+    }
+}
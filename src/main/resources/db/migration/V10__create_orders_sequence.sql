@@ -0,0 +1,11 @@
+-- Order ids move from the BIGSERIAL default to a pooled sequence that Hibernate
+-- allocates 50 ids at a time from (Order.id, allocationSize = 50).
+CREATE SEQUENCE orders_seq INCREMENT BY 50;
+
+-- Hibernate's pooled optimizer treats each nextval as the top of a block of 50, so
+-- the first block after this migration starts right after the current max id.
+SELECT setval('orders_seq', (SELECT COALESCE(MAX(id), 0) FROM orders) + 50, false);
+
+-- Nothing may keep drawing ids from the old serial sequence
+ALTER TABLE orders ALTER COLUMN id DROP DEFAULT;
+DROP SEQUENCE IF EXISTS orders_id_seq;
@@ -0,0 +1,14 @@
+-- Idempotency-Key values seen on POST /api/orders and the order each one created.
+-- The primary key makes a key claimable once across all instances; request_hash is a
+-- SHA-256 of the request body, so a key reused for a different cart is refused.
+-- Rows older than sweeties.orders.idempotency.ttl are purged by a scheduled job.
+
+CREATE TABLE order_idempotency_keys (
+    idem_key VARCHAR(100) PRIMARY KEY,
+    request_hash CHAR(64) NOT NULL,
+    order_id BIGINT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_order_idempotency_keys_created_at ON order_idempotency_keys (created_at);
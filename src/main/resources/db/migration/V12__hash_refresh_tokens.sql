@@ -0,0 +1,12 @@
+-- Refresh tokens are stored as the SHA-256 hex of the token; the plaintext only ever
+-- lives with the client. Existing tokens are hashed in place so sessions survive.
+DELETE FROM refresh_tokens WHERE expires_at < now();
+
+ALTER TABLE refresh_tokens ADD COLUMN token_hash VARCHAR(64);
+UPDATE refresh_tokens SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex');
+ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE refresh_tokens ADD CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash);
+ALTER TABLE refresh_tokens DROP COLUMN token;
+
+-- The background purge takes expired rows oldest-first, in bounded chunks, through this index
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
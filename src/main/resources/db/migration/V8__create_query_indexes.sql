@@ -0,0 +1,38 @@
+-- Secondary indexes for the access paths the services actually use.
+-- Plain CREATE INDEX (not CONCURRENTLY): Flyway runs each migration in a transaction.
+
+-- Trigram operator classes for the admin LIKE '%x%' search on email/phone
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- 1. Orders
+-- findByStatus(...) sorted by created_at DESC, filterOrders with a status
+CREATE INDEX idx_orders_status_created_at ON orders (status, created_at DESC);
+-- Unfiltered admin list, CSV export and created_at range filters
+CREATE INDEX idx_orders_created_at ON orders (created_at DESC);
+-- countByStatus(PENDIENTE) on the dashboard: only the open orders are indexed
+CREATE INDEX idx_orders_pending_created_at ON orders (created_at DESC) WHERE status = 'PENDIENTE';
+-- minTotal / maxTotal range filters
+CREATE INDEX idx_orders_total ON orders (total);
+-- filterOrders email / phone substring search
+CREATE INDEX idx_orders_email_trgm ON orders USING gin (email gin_trgm_ops);
+CREATE INDEX idx_orders_phone_trgm ON orders USING gin (phone gin_trgm_ops);
+
+-- 2. Order.items element collection (also serves the ON DELETE CASCADE)
+CREATE INDEX idx_order_items_order_id ON order_items (order_id);
+
+-- 3. Item element collections (also serve the ON DELETE CASCADE)
+CREATE INDEX idx_item_materials_item_id ON item_materials (item_id);
+CREATE INDEX idx_item_sizes_item_id ON item_sizes (item_id);
+CREATE INDEX idx_item_sprites_item_id ON item_sprites (item_id);
+CREATE INDEX idx_item_sprite_public_ids_item_id ON item_sprite_public_ids (item_id);
+
+-- 4. Storefront catalog pages filtered by visible / featured, newest first
+CREATE INDEX idx_items_visible_id ON items (id DESC) WHERE is_visible;
+CREATE INDEX idx_items_featured_visible_id ON items (id DESC) WHERE is_featured AND is_visible;
+
+-- 5. Foreign keys that are looked up or cascaded on user/theme deletes
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens (user_id);
+CREATE INDEX idx_users_theme_id ON users (theme_id);
+
+-- users.username / users.email already carry UNIQUE indexes, which
+-- findByUsernameOrEmail combines with a BitmapOr.
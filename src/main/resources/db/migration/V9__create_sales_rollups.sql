@@ -0,0 +1,24 @@
+-- Pre-aggregated sales per day and per month, kept current by the order write paths
+-- and rebuilt from history by the backfill job. Buckets are calendar days/months in
+-- sweeties.dashboard.zone; bucket_start is the first day of the bucket.
+
+CREATE TABLE sales_rollups (
+    granularity VARCHAR(5) NOT NULL,
+    bucket_start DATE NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    revenue NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    units BIGINT NOT NULL DEFAULT 0,
+    pendiente_count BIGINT NOT NULL DEFAULT 0,
+    enviado_count BIGINT NOT NULL DEFAULT 0,
+    entregado_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularity, bucket_start)
+);
+
+CREATE TABLE sales_product_rollups (
+    granularity VARCHAR(5) NOT NULL,
+    bucket_start DATE NOT NULL,
+    product_id VARCHAR(255) NOT NULL,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularity, bucket_start, product_id)
+);
@@ -0,0 +1,50 @@
+package com.rafaelcabanillas.sweeties.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsConfigTest {
+
+    private final MetricsConfig config = new MetricsConfig();
+
+    @Test
+    void requestsAreTaggedWithTheControllerMethodThatServedThem() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items/featured");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new SampleController(), SampleController.class.getMethod("featured")));
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/items/featured");
+        ServerRequestObservationContext context = new ServerRequestObservationContext(request, new MockHttpServletResponse());
+        context.setPathPattern(PathPatternParser.defaultInstance.parse("/api/items/featured").getPatternString());
+
+        KeyValues tags = config.handlerTaggingObservationConvention().getLowCardinalityKeyValues(context);
+
+        assertThat(tags).contains(KeyValue.of("handler", "SampleController#featured"));
+        // Boot's default tags are kept
+        assertThat(tags).contains(KeyValue.of("uri", "/api/items/featured"), KeyValue.of("method", "GET"));
+    }
+
+    @Test
+    void requestsWithoutAHandlerGetNone() {
+        ServerRequestObservationContext context = new ServerRequestObservationContext(
+                new MockHttpServletRequest("GET", "/nope"), new MockHttpServletResponse());
+
+        KeyValues tags = config.handlerTaggingObservationConvention().getLowCardinalityKeyValues(context);
+
+        assertThat(tags).contains(KeyValue.of("handler", "none"));
+    }
+
+    static class SampleController {
+        public String featured() {
+            return "[]";
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import com.rafaelcabanillas.sweeties.model.Item;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ItemRepositoryTest {
+
+    private static final int CATALOG_SIZE = 1_000;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seedCatalog() {
+        List<Item> items = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            items.add(Item.builder()
+                    .name("Amigurumi " + i)
+                    .description("Muñeco tejido a mano #" + i)
+                    .price(150.0 + i)
+                    .imageUrl("https://res.cloudinary.com/demo/image/upload/item_" + i + ".jpg")
+                    .materials(new ArrayList<>(List.of("algodón", "relleno")))
+                    .size(new ArrayList<>(List.of(Item.Size.builder().alto(20.0).ancho(10.0).build())))
+                    .sprites(new ArrayList<>(List.of("sprite_a_" + i, "sprite_b_" + i)))
+                    .spritesPublicIds(new ArrayList<>(List.of("pid_a_" + i, "pid_b_" + i)))
+                    .build());
+        }
+        itemRepository.saveAll(items);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findCatalogLoadsItemsAndCollectionsInFixedStatementCount() {
+        List<Item> catalog = itemRepository.findCatalog();
+
+        assertThat(catalog).hasSize(CATALOG_SIZE);
+        assertThat(catalog.get(0).getName()).isEqualTo("Amigurumi " + (CATALOG_SIZE - 1));
+        catalog.forEach(item -> {
+            assertThat(item.getMaterials()).hasSize(2);
+            assertThat(item.getSize()).hasSize(1);
+            assertThat(item.getSprites()).hasSize(2);
+            assertThat(item.getSpritesPublicIds()).hasSize(2);
+        });
+
+        // 1 select for items + 1 subselect per element collection
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,92 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import com.rafaelcabanillas.sweeties.dto.OrderExportRow;
+import com.rafaelcabanillas.sweeties.model.Order;
+import com.rafaelcabanillas.sweeties.model.OrderItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class OrderRepositoryTest {
+
+    private static final OffsetDateTime START = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void streamForExportSelectsFlatRowsWithoutLoadingOrderItems() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            orders.add(order(i, i % 3 == 0 ? Order.OrderStatus.ENVIADO : Order.OrderStatus.PENDIENTE, 2));
+        }
+        orderRepository.saveAll(orders);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<OrderExportRow> rows;
+        try (Stream<OrderExportRow> stream = orderRepository.streamForExport(
+                Order.OrderStatus.ENVIADO, START.plusDays(3), null, 50)) {
+            rows = stream.toList();
+        }
+
+        // ENVIADO orders are i = 0, 3, 6, ... ; from day 3 on leaves i = 3..27
+        assertThat(rows).extracting(OrderExportRow::getName)
+                .containsExactly("Cliente 27", "Cliente 24", "Cliente 21", "Cliente 18", "Cliente 15",
+                        "Cliente 12", "Cliente 9", "Cliente 6", "Cliente 3");
+        assertThat(rows).allSatisfy(row -> assertThat(row.getStatus()).isEqualTo(Order.OrderStatus.ENVIADO));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    private static Order order(int i, Order.OrderStatus status, int lines) {
+        List<OrderItem> items = new ArrayList<>();
+        for (int l = 0; l < lines; l++) {
+            items.add(OrderItem.builder()
+                    .productId(String.valueOf(l + 1))
+                    .name("Producto " + l)
+                    .price(120.0)
+                    .quantity(1)
+                    .build());
+        }
+        return Order.builder()
+                .name("Cliente " + i)
+                .email("cliente" + i + "@example.com")
+                .phone("55" + i)
+                .items(items)
+                .total(120.0 * lines)
+                .status(status)
+                .createdAt(START.plusDays(i))
+                .updatedAt(START.plusDays(i))
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.rafaelcabanillas.sweeties.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAIN-based regression test for the V8 indexes.
+ * Runs against the docker-compose Postgres: {@code docker compose up -d}, then
+ * {@code SWEETIES_PG_TESTS=true ./mvnw test -Dtest=QueryIndexExplainTest}.
+ * <p>
+ * Sequential scans are disabled for the session so the plan shows whether an index
+ * can serve the query shape at all, independent of how much data the local DB holds.
+ */
+@EnabledIfEnvironmentVariable(named = "SWEETIES_PG_TESTS", matches = "true")
+class QueryIndexExplainTest {
+
+    private static final String URL = env("SWEETIES_PG_URL", "jdbc:postgresql://localhost:5432/sweeties_db");
+    private static final String USER = env("DB_USER", "sweeties_user");
+    private static final String PASS = env("DB_PASS", "secret");
+
+    private Connection connection;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(URL, USER, PASS)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void openSession() throws SQLException {
+        connection = DriverManager.getConnection(URL, USER, PASS);
+        connection.setAutoCommit(false);
+        try (Statement st = connection.createStatement()) {
+            st.execute("SET LOCAL enable_seqscan = off");
+        }
+    }
+
+    @AfterEach
+    void closeSession() throws SQLException {
+        connection.rollback();
+        connection.close();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', value = {
+            "findByStatus sorted      | SELECT * FROM orders WHERE status = 'ENVIADO' ORDER BY created_at DESC LIMIT 10 | idx_orders_status_created_at",
+            // either the partial or the (status, created_at) index is a valid plan here
+            "countByStatus pending    | SELECT count(*) FROM orders WHERE status = 'PENDIENTE'                            | idx_orders_",
+            "list / export by date    | SELECT * FROM orders ORDER BY created_at DESC LIMIT 10                           | idx_orders_created_at",
+            "date range filter        | SELECT * FROM orders WHERE created_at >= now() - interval '30 days'             | idx_orders_created_at",
+            "total range filter       | SELECT * FROM orders WHERE total BETWEEN 100 AND 500                             | idx_orders_total",
+            "email substring search   | SELECT * FROM orders WHERE email LIKE '%gmail%'                                  | idx_orders_email_trgm",
+            "phone substring search   | SELECT * FROM orders WHERE phone LIKE '%5512%'                                   | idx_orders_phone_trgm",
+            "order items by order     | SELECT * FROM order_items WHERE order_id IN (1, 2, 3)                            | idx_order_items_order_id",
+            "item materials by item   | SELECT * FROM item_materials WHERE item_id IN (1, 2, 3)                          | idx_item_materials_item_id",
+            "item sizes by item       | SELECT * FROM item_sizes WHERE item_id IN (1, 2, 3)                              | idx_item_sizes_item_id",
+            "item sprites by item     | SELECT * FROM item_sprites WHERE item_id IN (1, 2, 3)                            | idx_item_sprites_item_id",
+            "item sprite ids by item  | SELECT * FROM item_sprite_public_ids WHERE item_id IN (1, 2, 3)                  | idx_item_sprite_public_ids_item_id",
+            "visible items newest     | SELECT * FROM items WHERE is_visible ORDER BY id DESC LIMIT 8                    | idx_items_visible_id",
+            "featured items newest    | SELECT * FROM items WHERE is_featured AND is_visible ORDER BY id DESC            | idx_items_featured_visible_id",
+            "username or email login  | SELECT * FROM users WHERE username = 'admin' OR email = 'admin'                  | users_username_key",
+    })
+    void queryPlanUsesIndex(String accessPath, String sql, String expectedIndex) throws SQLException {
+        assertThat(explain(sql))
+                .as("plan for %s", accessPath)
+                .contains(expectedIndex);
+    }
+
+    private String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null && !value.isBlank() ? value : fallback;
+    }
+}
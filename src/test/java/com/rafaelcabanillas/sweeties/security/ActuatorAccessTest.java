@@ -0,0 +1,54 @@
+package com.rafaelcabanillas.sweeties.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0")
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class ActuatorAccessTest {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void prometheusIsScrapedOnTheManagementPortWithoutAToken() throws Exception {
+        HttpResponse<String> response = get(managementPort, "/actuator/prometheus", null);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).contains("# TYPE application_ready_time_seconds gauge");
+    }
+
+    @Test
+    void aSpoofedForwardedForDoesNotOpenActuatorOnTheApplicationPort() throws Exception {
+        HttpResponse<String> response = get(serverPort, "/actuator/prometheus", "127.0.0.1");
+
+        assertThat(response.statusCode()).isIn(401, 404);
+        assertThat(response.body()).doesNotContain("# TYPE");
+    }
+
+    private HttpResponse<String> get(int port, String path, String forwardedFor) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path));
+        if (forwardedFor != null) {
+            request.header("X-Forwarded-For", forwardedFor);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,80 @@
+package com.rafaelcabanillas.sweeties.security;
+
+import com.rafaelcabanillas.sweeties.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtAuthenticationCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private JwtAuthenticationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new JwtAuthenticationCache(new JwtUtil(), registry, 100);
+    }
+
+    @Test
+    void repeatedTokenIsVerifiedOnceAndServedFromCache() {
+        String jwt = token("admin", Instant.now().plusSeconds(3600));
+
+        Authentication first = cache.resolve(jwt);
+        Authentication second = cache.resolve(jwt);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getName()).isEqualTo("admin");
+        assertThat(first.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        assertThat(registry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", "jwt").tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredAndTamperedTokensAreRejectedAndNeverCached() {
+        String expired = token("admin", Instant.now().minusSeconds(5));
+        String valid = token("admin", Instant.now().plusSeconds(3600));
+        String tampered = valid.substring(0, valid.length() - 2) + (valid.endsWith("A") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> cache.resolve(expired)).isInstanceOf(ExpiredJwtException.class);
+        assertThatThrownBy(() -> cache.resolve(tampered)).isInstanceOf(JwtException.class);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void entryIsEvictedAtTokenExpiry() throws InterruptedException {
+        // exp has second precision; land it at least one full second in the future
+        Instant exp = Instant.ofEpochSecond(Instant.now().getEpochSecond() + 2);
+        String jwt = token("admin", exp);
+
+        cache.resolve(jwt);
+        assertThat(cache.size()).isEqualTo(1);
+
+        Thread.sleep(Math.max(0, exp.toEpochMilli() - System.currentTimeMillis()) + 50);
+        assertThat(cache.size()).isZero();
+        assertThatThrownBy(() -> cache.resolve(jwt)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    private static String token(String subject, Instant exp) {
+        return Jwts.builder()
+                .claim("roles", List.of("ADMIN"))
+                .setSubject(subject)
+                .setIssuedAt(new Date())
+                .setExpiration(Date.from(exp))
+                .signWith(new JwtUtil().signingKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
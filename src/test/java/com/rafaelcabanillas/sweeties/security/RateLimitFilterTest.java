@@ -0,0 +1,88 @@
+package com.rafaelcabanillas.sweeties.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(new RateLimitProperties(true, 1000, Duration.ofMinutes(10), Map.of(
+                "checkout", new RateLimitProperties.Route("POST", "/api/orders", 3, Duration.ofMinutes(1)))),
+                registry);
+    }
+
+    @Test
+    void burstIsAllowedThenRejectedWithRetryAfter() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(post("/api/orders", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+
+        MockHttpServletResponse rejected = post("/api/orders", "10.0.0.1");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        // one token every 20s
+        assertThat(Integer.parseInt(rejected.getHeader("Retry-After"))).isBetween(19, 20);
+        assertThat(rejected.getContentAsString()).contains("Too Many Requests");
+        assertThat(registry.get("sweeties.ratelimit.rejected").tag("route", "checkout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void clientsAndUnlistedRoutesAreIndependent() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            post("/api/orders", "10.0.0.1");
+        }
+
+        assertThat(post("/api/orders", "10.0.0.2").getStatus()).isEqualTo(200);
+        assertThat(post("/api/public/contact", "10.0.0.1").getStatus()).isEqualTo(200);
+        MockHttpServletRequest get = new MockHttpServletRequest("GET", "/api/orders");
+        get.setServletPath("/api/orders");
+        get.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        filter.doFilter(get, res, new MockFilterChain());
+        assertThat(res.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void tokensRefillEvenlyOverThePeriod() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofSeconds(3), 100, Duration.ofMinutes(1));
+        long second = TimeUnit.SECONDS.toNanos(1);
+
+        assertThat(limiter.tryAcquire("c", 0)).isZero();
+        assertThat(limiter.tryAcquire("c", 0)).isZero();
+        assertThat(limiter.tryAcquire("c", 0)).isZero();
+        assertThat(limiter.tryAcquire("c", 0)).isEqualTo(second);
+
+        assertThat(limiter.tryAcquire("c", second)).isZero();
+        assertThat(limiter.tryAcquire("c", second)).isEqualTo(second);
+        // after a full period the burst is available again, and no more than that
+        long later = 10 * second;
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("c", later)).isZero();
+        }
+        assertThat(limiter.tryAcquire("c", later)).isPositive();
+    }
+
+    private MockHttpServletResponse post(String path, String ip) throws Exception {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", path);
+        req.setServletPath(path);
+        req.setRemoteAddr(ip);
+        MockHttpServletResponse res = new MockHttpServletResponse();
+        filter.doFilter(req, res, new MockFilterChain());
+        return res;
+    }
+}
@@ -0,0 +1,181 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.dto.settings.PublicAdminSettingsDTO;
+import com.rafaelcabanillas.sweeties.dto.settings.UpdateAdminSettingsDTO;
+import com.rafaelcabanillas.sweeties.model.AdminSettings;
+import com.rafaelcabanillas.sweeties.repository.AdminSettingsRepository;
+import com.rafaelcabanillas.sweeties.util.CloudinaryService;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/** Runs without the test-managed transaction so updates commit and their after-commit swap runs. */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AdminSettingsServiceImplTest {
+
+    @Autowired
+    private AdminSettingsRepository settingsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ResourceVersions resourceVersions;
+    private AdminSettingsServiceImpl service;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        AdminSettings settings = AdminSettings.builder().id(1L).siteName("Sweeties").contactEmail("hola@example.com").build();
+        settings.getSeo().setMetaKeywords(new ArrayList<>(List.of("crochet", "amigurumi")));
+        settings.getFooter().setAuxiliaryLinks(new ArrayList<>(List.of(new AdminSettings.AuxiliaryLink("FAQ", "/faq"))));
+        settingsRepository.save(settings);
+
+        resourceVersions = new ResourceVersions();
+        service = new AdminSettingsServiceImpl(settingsRepository, mock(CloudinaryService.class), resourceVersions);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        settingsRepository.deleteAll();
+    }
+
+    @Test
+    void readsAfterTheFirstCostNoQueries() {
+        PublicAdminSettingsDTO first = service.getPublicSettings();
+        long afterFirstLoad = statistics.getPrepareStatementCount();
+
+        for (int i = 0; i < 10; i++) {
+            service.getPublicSettings();
+            service.getAdminSettings();
+        }
+
+        assertThat(afterFirstLoad).isPositive();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(afterFirstLoad);
+        assertThat(first.getMetaKeywords()).containsExactly("crochet", "amigurumi");
+        assertThat(first.getFooter().getAuxiliaryLinks()).extracting(AdminSettings.AuxiliaryLink::getUrl).containsExactly("/faq");
+    }
+
+    @Test
+    void updateSwapsTheSnapshotOnCommit() throws Exception {
+        service.getPublicSettings();
+        String etag = resourceVersions.current(ResourceVersions.Resource.PUBLIC_SETTINGS).etag();
+
+        UpdateAdminSettingsDTO dto = new UpdateAdminSettingsDTO();
+        dto.setSiteName("Sweeties Crochet");
+        UpdateAdminSettingsDTO.SeoUpdate seo = new UpdateAdminSettingsDTO.SeoUpdate();
+        seo.setMetaKeywords(List.of("tejido"));
+        dto.setSeo(seo);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                service.updateAdminSettings(dto, null, null, null, null, null);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            // not visible to readers until the commit
+            assertThat(service.getPublicSettings().getSiteName()).isEqualTo("Sweeties");
+        });
+
+        statistics.clear();
+        assertThat(service.getPublicSettings().getSiteName()).isEqualTo("Sweeties Crochet");
+        assertThat(service.getAdminSettings().getSeo().getMetaKeywords()).containsExactly("tejido");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(resourceVersions.current(ResourceVersions.Resource.PUBLIC_SETTINGS).etag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void reloadPicksUpOutsideChangesAndKeepsTheVersionOtherwise() {
+        service.getPublicSettings();
+        String etag = publicSettingsETag();
+
+        service.reload();
+        assertThat(publicSettingsETag()).isEqualTo(etag);
+
+        AdminSettings row = settingsRepository.findById(1L).orElseThrow();
+        row.setSiteTagline("Hecho a mano");
+        settingsRepository.save(row);
+        service.reload();
+
+        assertThat(publicSettingsETag()).isNotEqualTo(etag);
+        assertThat(service.getPublicSettings().getSiteTagline()).isEqualTo("Hecho a mano");
+    }
+
+    @Test
+    void snapshotCopyKeepsEveryFieldAndSharesNoMutableState() throws Exception {
+        AdminSettings original = new AdminSettings();
+        fillEveryField(original);
+
+        AdminSettings copy = AdminSettingsServiceImpl.detachedCopy(original);
+
+        // Fails when a field is added to AdminSettings (or an embeddable) but not to the copy
+        assertThat(copy).usingRecursiveComparison().isEqualTo(original);
+        for (Field field : AdminSettings.class.getDeclaredFields()) {
+            field.setAccessible(true);
+            Object value = field.get(original);
+            if (value instanceof List<?> || field.getType().getEnclosingClass() == AdminSettings.class && !field.getType().isEnum()) {
+                assertThat(field.get(copy)).as(field.getName()).isNotSameAs(value);
+            }
+        }
+    }
+
+    private String publicSettingsETag() {
+        return resourceVersions.current(ResourceVersions.Resource.PUBLIC_SETTINGS).etag();
+    }
+
+    /** Sets every instance field, nested embeddables included, to a non-default value. */
+    private static void fillEveryField(Object target) throws ReflectiveOperationException {
+        for (Field field : target.getClass().getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) continue;
+            field.setAccessible(true);
+            field.set(target, sample(field.getType(), field.getGenericType(), field.getName(), field.get(target)));
+        }
+    }
+
+    private static Object sample(Class<?> type, Type genericType, String name, Object current)
+            throws ReflectiveOperationException {
+        if (type == String.class) return name + "-valor";
+        if (type == boolean.class) return !(Boolean) current;
+        if (type == Integer.class || type == int.class) return 37;
+        if (type == Long.class) return 1L;
+        if (type == LocalDateTime.class) return LocalDateTime.of(2024, 5, 1, 12, 30);
+        if (type.isEnum()) {
+            List<?> constants = List.of(type.getEnumConstants());
+            return constants.get((constants.indexOf(current) + 1) % constants.size());
+        }
+        if (type == List.class) {
+            Class<?> element = (Class<?>) ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            return new ArrayList<>(List.of(sample(element, element, name, null)));
+        }
+        Object nested = type.getDeclaredConstructor().newInstance();
+        fillEveryField(nested);
+        return nested;
+    }
+}
@@ -0,0 +1,115 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.model.Order;
+import com.rafaelcabanillas.sweeties.model.OrderItem;
+import com.rafaelcabanillas.sweeties.repository.ItemRepository;
+import com.rafaelcabanillas.sweeties.repository.OrderRepository;
+import com.rafaelcabanillas.sweeties.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs without the test-managed transaction so every repository call commits and
+ * the after-commit deltas fire the way they do in production.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DashboardCountersTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SimpleMeterRegistry registry;
+    private DashboardCounters counters;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        counters = new DashboardCounters(userRepository, itemRepository, orderRepository, registry);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    void writePathDeltasKeepTheSnapshotExactWithoutQueries() {
+        orderRepository.save(order(Order.OrderStatus.PENDIENTE, 100.10));
+        orderRepository.save(order(Order.OrderStatus.ENVIADO, 50.25));
+        counters.seed();
+
+        counters.orderCreated(Order.OrderStatus.PENDIENTE, 19.99);
+        counters.orderStatusChanged(Order.OrderStatus.PENDIENTE, Order.OrderStatus.ENVIADO);
+        counters.orderDeleted(Order.OrderStatus.ENVIADO, 50.25);
+        counters.itemCreated();
+
+        statistics.clear();
+        DashboardCounters.Snapshot snapshot = counters.snapshot();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(snapshot.pendingOrdersCount()).isEqualTo(1);
+        assertThat(snapshot.totalRevenue()).isEqualTo(120.09);
+        assertThat(snapshot.itemCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileCorrectsDriftFromWritesThatBypassedTheCounters() {
+        counters.seed();
+        assertThat(counters.snapshot().pendingOrdersCount()).isZero();
+
+        // written straight through the repository, as a manual SQL fix would
+        orderRepository.save(order(Order.OrderStatus.PENDIENTE, 80.0));
+        orderRepository.save(order(Order.OrderStatus.PENDIENTE, 20.5));
+        assertThat(counters.snapshot().pendingOrdersCount()).isZero();
+
+        counters.reconcile();
+
+        assertThat(counters.snapshot().pendingOrdersCount()).isEqualTo(2);
+        assertThat(counters.snapshot().totalRevenue()).isEqualTo(100.5);
+        assertThat(registry.get("sweeties.dashboard.reconcile.corrections").counter().count()).isEqualTo(1);
+
+        counters.reconcile();
+        assertThat(registry.get("sweeties.dashboard.reconcile.corrections").counter().count()).isEqualTo(1);
+    }
+
+    private static Order order(Order.OrderStatus status, double total) {
+        List<OrderItem> items = new ArrayList<>();
+        items.add(OrderItem.builder().productId("1").name("Producto").price(total).quantity(1).build());
+        return Order.builder()
+                .name("Cliente")
+                .email("cliente@example.com")
+                .phone("55")
+                .items(items)
+                .total(total)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.sendgrid.Client;
+import com.sendgrid.SendGrid;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the dispatcher against a local HTTP stub standing in for api.sendgrid.com.
+ */
+class EmailDispatcherTest {
+
+    private HttpServer stub;
+    private CloseableHttpClient httpClient;
+    private SimpleMeterRegistry registry;
+    private EmailDispatcher dispatcher;
+
+    // Status codes the stub answers with, in order; 202 once exhausted
+    private final Queue<Integer> scriptedStatuses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger accepted = new AtomicInteger();
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/v3/mail/send", exchange -> {
+            calls.incrementAndGet();
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getRequestBody().readAllBytes();
+            Integer status = scriptedStatuses.poll();
+            int code = status != null ? status : 202;
+            if (code == 202) accepted.incrementAndGet();
+            exchange.sendResponseHeaders(code, -1);
+            exchange.close();
+        });
+        stub.start();
+
+        httpClient = HttpClients.createDefault();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void stopStub() throws Exception {
+        if (dispatcher != null) dispatcher.destroy();
+        httpClient.close();
+        stub.stop(0);
+    }
+
+    @Test
+    void retriesRateLimitedAndServerErrorsWithBackoff() throws Exception {
+        scriptedStatuses.add(429);
+        scriptedStatuses.add(503);
+        dispatcher = dispatcher(1, 10, 4);
+
+        assertThat(dispatcher.dispatch(message("guest@example.com"))).isTrue();
+
+        awaitCount("sent", 1);
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(registry.get("sweeties.email.retries").counter().count()).isEqualTo(2);
+        assertThat(registry.get("sweeties.email.send").timer().count()).isEqualTo(1);
+        assertThat(registry.get("sweeties.email.sendgrid.request").tag("status", "4xx").timer().count()).isEqualTo(1);
+        assertThat(registry.get("sweeties.email.sendgrid.request").tag("status", "5xx").timer().count()).isEqualTo(1);
+        assertThat(registry.get("sweeties.email.sendgrid.request").tag("status", "2xx").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() throws Exception {
+        scriptedStatuses.add(400);
+        dispatcher = dispatcher(1, 10, 4);
+
+        dispatcher.dispatch(message("bad-address"));
+
+        awaitCount("failed", 1);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void fullQueueAppliesBackPressureThenRejects() throws Exception {
+        gate = new CountDownLatch(1); // hold the single worker inside the stub
+        dispatcher = dispatcher(1, 2, 1);
+
+        assertThat(dispatcher.dispatch(message("a@example.com"))).isTrue(); // taken by the worker
+        awaitCondition(() -> calls.get() == 1);
+        assertThat(dispatcher.dispatch(message("b@example.com"))).isTrue();
+        assertThat(dispatcher.dispatch(message("c@example.com"))).isTrue();
+        assertThat(dispatcher.queueDepth()).isEqualTo(2);
+
+        long start = System.nanoTime();
+        assertThat(dispatcher.dispatch(message("d@example.com"))).isFalse();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+        assertThat(registry.get("sweeties.email.messages").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+
+        gate.countDown();
+        awaitCount("sent", 3);
+        assertThat(accepted.get()).isEqualTo(3);
+    }
+
+    @Test
+    void workersKeepSendingWhileARetryWaitsOutItsBackoff() throws Exception {
+        scriptedStatuses.add(503);
+        dispatcher = dispatcher(1, 10, 2, Duration.ofSeconds(5));
+
+        dispatcher.dispatch(message("retried@example.com"));
+        awaitCondition(() -> calls.get() == 1);
+        long start = System.nanoTime();
+        dispatcher.dispatch(message("next@example.com"));
+
+        // The only worker is free: the second message goes out long before the retry is due
+        awaitCount("sent", 1);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(registry.get("sweeties.email.retries").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void messagesDispatchedAfterShutdownAreRejectedNotLost() throws Exception {
+        dispatcher = dispatcher(1, 10, 1);
+        dispatcher.destroy();
+
+        assertThat(dispatcher.dispatch(message("late@example.com"))).isFalse();
+        assertThat(registry.get("sweeties.email.messages").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+        assertThat(dispatcher.queueDepth()).isZero();
+    }
+
+    private EmailDispatcher dispatcher(int workers, int capacity, int maxAttempts) {
+        return dispatcher(workers, capacity, maxAttempts, Duration.ofMillis(10));
+    }
+
+    private EmailDispatcher dispatcher(int workers, int capacity, int maxAttempts, Duration initialBackoff) {
+        SendGrid sendGrid = new SendGrid("test-key", new Client(httpClient, true));
+        sendGrid.setHost("127.0.0.1:" + stub.getAddress().getPort());
+        return new EmailDispatcher(sendGrid, registry, workers, capacity, false,
+                Duration.ofMillis(100), maxAttempts, initialBackoff, Duration.ofSeconds(30));
+    }
+
+    private static EmailDispatcher.EmailMessage message(String to) {
+        return new EmailDispatcher.EmailMessage(to, "Pedido", "{\"personalizations\":[]}");
+    }
+
+    private void awaitCount(String outcome, int expected) throws InterruptedException {
+        awaitCondition(() -> registry.get("sweeties.email.messages").tag("outcome", outcome).counter().count() >= expected);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) throw new AssertionError("condition not met within 10s");
+            Thread.sleep(10);
+        }
+    }
+}
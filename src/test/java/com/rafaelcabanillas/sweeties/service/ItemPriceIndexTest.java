@@ -0,0 +1,81 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.model.Item;
+import com.rafaelcabanillas.sweeties.repository.ItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/** No transaction is active here, so the after-commit updates apply immediately. */
+class ItemPriceIndexTest {
+
+    private ItemRepository itemRepository;
+    private SimpleMeterRegistry registry;
+    private ItemPriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findPriceRows()).thenReturn(rows(
+                new Object[]{2L, 19.99, true},
+                new Object[]{5L, 100.0, false},
+                new Object[]{9L, 0.5, true}));
+        registry = new SimpleMeterRegistry();
+        index = new ItemPriceIndex(itemRepository, registry);
+    }
+
+    @Test
+    void loadsOnceAndAnswersLookupsFromMemory() {
+        assertThat(index.find(2L)).isEqualTo(new ItemPriceIndex.Entry(2L, 1999, true));
+        assertThat(index.find(5L).visible()).isFalse();
+        assertThat(index.find(3L)).isNull();
+        assertThat(index.find(10L)).isNull();
+
+        verify(itemRepository, times(1)).findPriceRows();
+    }
+
+    @Test
+    void itemWritesAreVisibleWithoutAReload() {
+        index.seed();
+
+        index.itemSaved(item(7L, 12.34, true));   // new, lands between 5 and 9
+        index.itemSaved(item(2L, 25.0, false));   // price and visibility change
+        index.itemDeleted(9L);
+
+        assertThat(index.find(7L)).isEqualTo(new ItemPriceIndex.Entry(7L, 1234, true));
+        assertThat(index.find(2L)).isEqualTo(new ItemPriceIndex.Entry(2L, 2500, false));
+        assertThat(index.find(9L)).isNull();
+        assertThat(index.find(5L).priceCents()).isEqualTo(10000);
+        verify(itemRepository, times(1)).findPriceRows();
+    }
+
+    @Test
+    void reloadCorrectsDriftAndCountsIt() {
+        index.seed();
+        // a manual price fix straight in the database
+        when(itemRepository.findPriceRows()).thenReturn(rows(
+                new Object[]{2L, 17.5, true},
+                new Object[]{5L, 100.0, false},
+                new Object[]{9L, 0.5, true}));
+
+        index.reload();
+        index.reload();
+
+        assertThat(index.find(2L).priceCents()).isEqualTo(1750);
+        assertThat(registry.get("sweeties.checkout.price_index.corrections").counter().count()).isEqualTo(1);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private static Item item(long id, double price, boolean visible) {
+        return Item.builder().id(id).price(price).isVisible(visible).build();
+    }
+}
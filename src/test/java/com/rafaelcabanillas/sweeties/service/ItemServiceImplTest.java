@@ -0,0 +1,146 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.dto.ItemDTO;
+import com.rafaelcabanillas.sweeties.dto.ItemPageDTO;
+import com.rafaelcabanillas.sweeties.model.Item;
+import com.rafaelcabanillas.sweeties.repository.ItemRepository;
+import com.rafaelcabanillas.sweeties.repository.OrderRepository;
+import com.rafaelcabanillas.sweeties.repository.UserRepository;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ItemServiceImplTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ItemServiceImpl itemService;
+    private ResourceVersions versions;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(Item.builder()
+                    .name("Item " + i)
+                    .description("desc")
+                    .price(100.0 + i * 10)
+                    .imageUrl("https://example.com/" + i + ".jpg")
+                    .materials(new ArrayList<>(List.of(i % 2 == 0 ? "algodón" : "lana")))
+                    .sprites(new ArrayList<>(List.of("s" + i)))
+                    .isFeatured(i % 5 == 0)
+                    .isVisible(i % 10 != 9)
+                    .build());
+        }
+        itemRepository.saveAll(items);
+        entityManager.flush();
+        entityManager.clear();
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        versions = new ResourceVersions();
+        itemService = new ItemServiceImpl(itemRepository, new ItemCatalogCache(registry, versions, Duration.ofMinutes(10)),
+                new DashboardCounters(userRepository, itemRepository, orderRepository, registry),
+                new ItemPriceIndex(itemRepository, registry));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void catalogPagesWalkTheWholeFilteredCatalogWithoutGapsOrDuplicates() {
+        List<ItemDTO> seen = new ArrayList<>();
+        Long cursor = null;
+        int pages = 0;
+        do {
+            ItemPageDTO page = itemService.getCatalogPage(cursor, 7, true, null, null, null, "algodón");
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // even indexes are algodón, every 10th item (index 9, 19, ...) is hidden but those are odd
+        assertThat(seen).hasSize(25);
+        assertThat(pages).isEqualTo(4);
+        assertThat(seen).extracting(ItemDTO::getId).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+        assertThat(seen).extracting(ItemDTO::getId).doesNotHaveDuplicates();
+        assertThat(seen).allSatisfy(item -> {
+            assertThat(item.getMaterials()).containsExactly("algodón");
+            assertThat(item.getSprites()).hasSize(1);
+        });
+    }
+
+    @Test
+    void catalogPageCostIsIndependentOfCatalogSize() {
+        ItemPageDTO page = itemService.getCatalogPage(null, 10, null, null, 150.0, 400.0, null);
+
+        assertThat(page.getItems()).hasSize(10);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getItems()).allSatisfy(item -> assertThat(item.getPrice()).isBetween(150.0, 400.0));
+        // page ids + items by id + one subselect per element collection
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+        // 26 items match the price range; only the 10 on the page get their 4 collections loaded
+        assertThat(statistics.getCollectionLoadCount()).isEqualTo(10 * 4);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(10);
+    }
+
+    @Test
+    void scheduledRefreshMovesTheCatalogETagAfterAWriteFromElsewhere() {
+        itemService.getAllItems();
+        String before = versions.current(ResourceVersions.Resource.CATALOG).etag();
+
+        itemService.refreshCatalog();
+        assertThat(versions.current(ResourceVersions.Resource.CATALOG).etag()).isEqualTo(before);
+
+        // Another instance (or manual SQL) edits a row; this instance's cache is still within its TTL
+        entityManager.createNativeQuery("UPDATE items SET price = 999 WHERE id = (SELECT MAX(id) FROM items)")
+                .executeUpdate();
+        entityManager.clear();
+        itemService.refreshCatalog();
+
+        assertThat(versions.current(ResourceVersions.Resource.CATALOG).etag()).isNotEqualTo(before);
+        assertThat(itemService.getAllItems().get(0).getPrice()).isEqualTo(999.0);
+    }
+
+    @Test
+    void callersCannotChangeTheCachedCatalog() {
+        ItemDTO first = itemService.getFeaturedItems().get(0);
+        first.setPrice(1.0);
+        first.setName("cambiado");
+        itemService.getItemById(first.getId()).setVisible(false);
+
+        ItemDTO again = itemService.getItemById(first.getId());
+        assertThat(again.getPrice()).isNotEqualTo(1.0);
+        assertThat(again.getName()).isNotEqualTo("cambiado");
+        assertThat(again.isVisible()).isTrue();
+        assertThat(itemService.getFeaturedItems().get(0)).isEqualTo(again).isNotSameAs(first);
+    }
+}
@@ -0,0 +1,160 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafaelcabanillas.sweeties.dto.CreateOrderDTO;
+import com.rafaelcabanillas.sweeties.dto.OrderDTO;
+import com.rafaelcabanillas.sweeties.dto.OrderItemDTO;
+import com.rafaelcabanillas.sweeties.repository.OrderIdempotencyKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs without the test-managed transaction so the key rows commit and are visible
+ * to a second instance, as they would be across servers.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderIdempotencyTest {
+
+    @Autowired
+    private OrderIdempotencyKeyRepository keyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderService orderService;
+    private final AtomicLong nextOrderId = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        when(orderService.createOrder(any())).thenAnswer(inv -> OrderDTO.builder().id(nextOrderId.incrementAndGet()).build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        keyRepository.deleteAll();
+    }
+
+    @Test
+    void retryReturnsTheOriginalOrderWithoutCreatingAnother() {
+        OrderIdempotency idempotency = newInstance();
+
+        OrderIdempotency.Result first = idempotency.createOrder("k-1", order(2));
+        OrderIdempotency.Result retry = idempotency.createOrder("k-1", order(2));
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry).isEqualTo(new OrderIdempotency.Result(first.orderId(), true));
+        verify(orderService, times(1)).createOrder(any());
+        assertThat(keyRepository.findById("k-1")).get()
+                .extracting(k -> k.getOrderId()).isEqualTo(first.orderId());
+    }
+
+    @Test
+    void concurrentDuplicatesAreCoalescedIntoOneOrder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(orderService.createOrder(any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return OrderDTO.builder().id(nextOrderId.incrementAndGet()).build();
+        });
+        OrderIdempotency idempotency = newInstance();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<OrderIdempotency.Result>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> idempotency.createOrder("k-burst", order(1))));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            List<Long> ids = new ArrayList<>();
+            int replays = 0;
+            for (Future<OrderIdempotency.Result> r : results) {
+                ids.add(r.get(10, TimeUnit.SECONDS).orderId());
+                replays += r.get().replayed() ? 1 : 0;
+            }
+            assertThat(ids).containsOnly(ids.get(0));
+            assertThat(replays).isEqualTo(7);
+            verify(orderService, times(1)).createOrder(any());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void anotherInstanceReplaysFromTheKeyTable() {
+        OrderIdempotency.Result first = newInstance().createOrder("k-2", order(1));
+
+        // fresh memory, as after a restart or on a different server
+        OrderIdempotency.Result retry = newInstance().createOrder("k-2", order(1));
+
+        assertThat(retry).isEqualTo(new OrderIdempotency.Result(first.orderId(), true));
+        verify(orderService, times(1)).createOrder(any());
+    }
+
+    @Test
+    void keyReusedForADifferentCartIsRefused() {
+        OrderIdempotency idempotency = newInstance();
+        idempotency.createOrder("k-3", order(1));
+
+        assertThatThrownBy(() -> idempotency.createOrder("k-3", order(3)))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        verify(orderService, times(1)).createOrder(any());
+    }
+
+    @Test
+    void failuresAreNotRememberedSoTheClientCanRetry() {
+        when(orderService.createOrder(any()))
+                .thenThrow(new ResponseStatusException(HttpStatus.CONFLICT, "Los precios cambiaron"))
+                .thenAnswer(inv -> OrderDTO.builder().id(nextOrderId.incrementAndGet()).build());
+        OrderIdempotency idempotency = newInstance();
+
+        assertThatThrownBy(() -> idempotency.createOrder("k-4", order(1)))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThat(keyRepository.existsById("k-4")).isFalse();
+
+        OrderIdempotency.Result retry = idempotency.createOrder("k-4", order(1));
+        assertThat(retry.replayed()).isFalse();
+        verify(orderService, times(2)).createOrder(any());
+    }
+
+    private OrderIdempotency newInstance() {
+        return new OrderIdempotency(orderService, keyRepository, transactionManager, new ObjectMapper(),
+                new SimpleMeterRegistry(), Duration.ofHours(24), 1000);
+    }
+
+    private static CreateOrderDTO order(int quantity) {
+        return CreateOrderDTO.builder()
+                .name("Cliente")
+                .email("cliente@example.com")
+                .phone("55")
+                .items(List.of(OrderItemDTO.builder().productId("1").name("Producto").price(10.0).quantity(quantity).build()))
+                .total(10.0 * quantity)
+                .build();
+    }
+}
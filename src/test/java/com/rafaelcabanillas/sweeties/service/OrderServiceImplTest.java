@@ -0,0 +1,214 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.dto.CreateOrderDTO;
+import com.rafaelcabanillas.sweeties.dto.OrderDTO;
+import com.rafaelcabanillas.sweeties.dto.OrderItemDTO;
+import com.rafaelcabanillas.sweeties.model.Item;
+import com.rafaelcabanillas.sweeties.model.Order;
+import com.rafaelcabanillas.sweeties.repository.ItemRepository;
+import com.rafaelcabanillas.sweeties.repository.OrderRepository;
+import com.rafaelcabanillas.sweeties.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Counts JDBC executions (a batch counts once) at the DataSource, the way the
+ * database sees them, so batching that Hibernate statistics would hide shows up.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({SalesRollups.class, OrderServiceImplTest.RoundTripCounting.class})
+class OrderServiceImplTest {
+
+    private static final AtomicInteger roundTrips = new AtomicInteger();
+
+    @TestConfiguration
+    static class RoundTripCounting {
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) return bean;
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .listener(new QueryExecutionListener() {
+                                @Override
+                                public void beforeQuery(ExecutionInfo info, List<QueryInfo> queries) {
+                                }
+
+                                @Override
+                                public void afterQuery(ExecutionInfo info, List<QueryInfo> queries) {
+                                    roundTrips.incrementAndGet();
+                                }
+                            })
+                            .build();
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SalesRollups salesRollups;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderServiceImpl orderService;
+    private final List<Long> productIds = new ArrayList<>();
+    private Long hiddenId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 20; i++) {
+            productIds.add(itemRepository.save(item(10.0 + i, true)).getId());
+        }
+        hiddenId = itemRepository.save(item(99.0, false)).getId();
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DashboardCounters counters = new DashboardCounters(userRepository, itemRepository, orderRepository, registry);
+        ItemPriceIndex priceIndex = new ItemPriceIndex(itemRepository, registry);
+        orderService = new OrderServiceImpl(orderRepository, mock(EmailService.class), counters, salesRollups, priceIndex);
+        // Warm the id pool: on a fresh sequence the pooled optimizer reads it twice
+        // (once for the initial value, once for the first block of 50)
+        for (int i = 0; i < 2; i++) {
+            orderService.createOrder(order(1));
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void orderIsWrittenInAFixedNumberOfRoundTripsWhateverItsLineCount() {
+        int single = roundTripsFor(order(1));
+        int twenty = roundTripsFor(order(20));
+
+        // order + order_items + ensure/bump for bucket rows + ensure/bump for product rows;
+        // prices are checked against the in-memory index, not read per line
+        assertThat(single).isEqualTo(6);
+        assertThat(twenty).isEqualTo(single);
+    }
+
+    @Test
+    void pooledIdsAreAssignedWithoutTouchingTheDatabase() {
+        roundTrips.set(0);
+        Order order = orderRepository.save(Order.builder()
+                .name("Cliente").email("cliente@example.com").phone("55").total(10.0).build());
+
+        assertThat(order.getId()).isNotNull();
+        assertThat(roundTrips.get()).isZero();
+    }
+
+    @Test
+    void batchedLinesKeepTheirValuesAndOrder() {
+        OrderDTO created = orderService.createOrder(order(20));
+        entityManager.flush();
+        entityManager.clear();
+
+        Order reloaded = orderRepository.findById(created.getId()).orElseThrow();
+        assertThat(reloaded.getItems()).hasSize(20);
+        assertThat(reloaded.getItems().get(19).getProductId()).isEqualTo(productIds.get(19).toString());
+        assertThat(reloaded.getItems().get(19).getQuantity()).isEqualTo(20);
+    }
+
+    @Test
+    void linePricesAndTotalComeFromTheCatalog() {
+        CreateOrderDTO dto = order(2);
+        // a client that sends the right total but tampered line prices still pays catalog prices
+        dto.getItems().get(0).setPrice(0.01);
+
+        OrderDTO created = orderService.createOrder(dto);
+
+        assertThat(created.getItems()).extracting(OrderItemDTO::getPrice).containsExactly(10.0, 11.0);
+        assertThat(created.getTotal()).isEqualTo(10.0 + 2 * 11.0);
+    }
+
+    @Test
+    void staleTotalIsRejectedWithTheCurrentOne() {
+        CreateOrderDTO dto = order(2);
+        dto.setTotal(dto.getTotal() - 1);
+
+        assertThatThrownBy(() -> orderService.createOrder(dto))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("32.0")
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void hiddenUnknownAndMalformedProductsAreRejected() {
+        for (String productId : List.of(hiddenId.toString(), "987654", "abc")) {
+            CreateOrderDTO dto = order(1);
+            dto.getItems().get(0).setProductId(productId);
+
+            assertThatThrownBy(() -> orderService.createOrder(dto))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .hasMessageContaining("no está disponible");
+        }
+    }
+
+    private int roundTripsFor(CreateOrderDTO dto) {
+        roundTrips.set(0);
+        orderService.createOrder(dto);
+        entityManager.flush();
+        return roundTrips.get();
+    }
+
+    private CreateOrderDTO order(int lines) {
+        List<OrderItemDTO> items = new ArrayList<>();
+        double total = 0;
+        for (int i = 0; i < lines; i++) {
+            double price = 10.0 + i;
+            items.add(OrderItemDTO.builder().productId(productIds.get(i).toString()).name("Producto " + i).price(price).quantity(i + 1).build());
+            total += price * (i + 1);
+        }
+        return CreateOrderDTO.builder()
+                .name("Cliente")
+                .email("cliente@example.com")
+                .phone("55")
+                .items(items)
+                .total(total)
+                .build();
+    }
+
+    private static Item item(double price, boolean visible) {
+        return Item.builder()
+                .name("Producto")
+                .description("desc")
+                .price(price)
+                .imageUrl("https://example.com/p.jpg")
+                .isVisible(visible)
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.config.SqlBudgetConfig;
+import com.rafaelcabanillas.sweeties.exception.TokenRefreshException;
+import com.rafaelcabanillas.sweeties.model.RefreshToken;
+import com.rafaelcabanillas.sweeties.model.User;
+import com.rafaelcabanillas.sweeties.repository.RefreshTokenRepository;
+import com.rafaelcabanillas.sweeties.repository.UserRepository;
+import com.rafaelcabanillas.sweeties.util.SqlStatementTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Runs without the test-managed transaction so rotations commit as they do in production. */
+@DataJpaTest
+@Import(SqlBudgetConfig.class)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceImplTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SimpleMeterRegistry registry;
+    private RefreshTokenServiceImpl service;
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder().name("Ana").username("ana").email("ana@example.com").password("x").build());
+        registry = new SimpleMeterRegistry();
+        service = new RefreshTokenServiceImpl(refreshTokenRepository, userRepository, transactionManager, registry,
+                1000, Duration.ofHours(1), 2);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void rotationRedeemsATokenExactlyOnce() {
+        String original = service.createToken(user, 60).token();
+
+        SqlStatementTracker.start("rotate", Integer.MAX_VALUE, false);
+        RefreshTokenService.IssuedToken rotated;
+        try {
+            rotated = inTransaction(() -> service.rotateToken(original));
+        } finally {
+            // Counted at the DataSource: one UPDATE swaps the hash and returns user_id,
+            // one primary-key SELECT loads the user for the access token
+            assertThat(SqlStatementTracker.stop().statements()).isEqualTo(2);
+        }
+        assertThat(rotated.user().getUsername()).isEqualTo("ana");
+        assertThat(rotated.token()).isNotEqualTo(original);
+        assertThat(refreshTokenRepository.findAll()).singleElement()
+                .extracting(RefreshToken::getTokenHash)
+                .isEqualTo(RefreshTokenServiceImpl.hash(rotated.token()));
+
+        statistics.clear();
+        assertThatThrownBy(() -> inTransaction(() -> service.rotateToken(original)))
+                .isInstanceOf(TokenRefreshException.class);
+        // replay of a rotated token is refused from memory
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(service.isValid(rotated.token())).isTrue();
+    }
+
+    @Test
+    void unknownAndLoggedOutTokensAreRejectedWithoutAQueryAfterTheFirstMiss() {
+        String token = service.createToken(user, 60).token();
+        inTransaction(() -> {
+            service.deleteToken(token);
+            return null;
+        });
+
+        statistics.clear();
+        assertThat(service.isValid(token)).isFalse();
+        assertThat(service.getUserFromToken("not-a-token")).isNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        assertThat(service.getUserFromToken("not-a-token")).isNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void purgeDeletesExpiredTokensInBoundedChunks() {
+        for (int i = 0; i < 5; i++) {
+            refreshTokenRepository.save(RefreshToken.builder()
+                    .user(user)
+                    .tokenHash(RefreshTokenServiceImpl.hash("expired-" + i))
+                    .expiresAt(OffsetDateTime.now().minusMinutes(1 + i))
+                    .build());
+        }
+        String live = service.createToken(user, 60).token();
+
+        service.purgeExpired();
+
+        assertThat(refreshTokenRepository.findAll()).singleElement()
+                .extracting(RefreshToken::getTokenHash)
+                .isEqualTo(RefreshTokenServiceImpl.hash(live));
+        assertThat(registry.get("sweeties.auth.refresh_tokens.purged").counter().count()).isEqualTo(5);
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        return new TransactionTemplate(transactionManager).execute(status -> action.get());
+    }
+}
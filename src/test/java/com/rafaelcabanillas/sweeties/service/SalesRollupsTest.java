@@ -0,0 +1,184 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.dto.ProductSalesDTO;
+import com.rafaelcabanillas.sweeties.dto.SalesPointDTO;
+import com.rafaelcabanillas.sweeties.dto.SalesSeriesDTO;
+import com.rafaelcabanillas.sweeties.model.Order;
+import com.rafaelcabanillas.sweeties.model.OrderItem;
+import com.rafaelcabanillas.sweeties.model.SalesProductRollup;
+import com.rafaelcabanillas.sweeties.model.SalesRollup;
+import com.rafaelcabanillas.sweeties.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(SalesRollups.class)
+class SalesRollupsTest {
+
+    @Autowired
+    private SalesRollups salesRollups;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private SalesRollupRepository rollupRepository;
+
+    @Autowired
+    private SalesProductRollupRepository productRollupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private DashboardServiceImpl dashboardService;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        DashboardCounters counters = new DashboardCounters(userRepository, itemRepository, orderRepository, new SimpleMeterRegistry());
+        dashboardService = new DashboardServiceImpl(counters, salesRollups, rollupRepository, productRollupRepository);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void incrementalDeltasMatchAFullRebuildFromHistory() {
+        // 23:30 in Mexico City is already the next day in UTC; the bucket must follow the shop's calendar
+        Order lateNight = create(at("2025-01-31T23:30:00-06:00"), line("A", 100.0, 2), line("B", 35.5, 1));
+        Order february = create(at("2025-02-10T12:00:00-06:00"), line("A", 100.0, 1));
+        Order deleted = create(at("2025-02-10T15:00:00-06:00"), line("C", 10.0, 3));
+        create(at("2025-02-11T09:00:00-06:00"), line("B", 35.5, 4), line("B", 35.5, 1));
+
+        changeStatus(lateNight, Order.OrderStatus.ENVIADO);
+        changeStatus(february, Order.OrderStatus.ENTREGADO);
+        orderRepository.delete(deleted);
+        salesRollups.recordDeleted(deleted);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<SalesRollup> incremental = rollups();
+        List<SalesProductRollup> incrementalProducts = productRollups();
+
+        salesRollups.rebuild();
+
+        // Deleted orders leave zero rows behind incrementally; the rebuild never creates them
+        assertThat(incremental).filteredOn(r -> r.getOrderCount() != 0)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(rollups());
+        assertThat(incrementalProducts).filteredOn(r -> r.getUnits() != 0)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(productRollups());
+
+        SalesRollup jan31 = rollupRepository.findById(new SalesRollup.Key(SalesRollup.Granularity.DAY, LocalDate.parse("2025-01-31"))).orElseThrow();
+        assertThat(jan31.getOrderCount()).isEqualTo(1);
+        assertThat(jan31.getShippedCount()).isEqualTo(1);
+        assertThat(jan31.getRevenue()).isEqualByComparingTo("235.50");
+    }
+
+    @Test
+    void seriesIsZeroFilledAndServedFromASingleQuery() {
+        create(at("2025-03-01T10:00:00-06:00"), line("A", 50.0, 1));
+        create(at("2025-03-03T10:00:00-06:00"), line("A", 50.0, 2));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        SalesSeriesDTO series = dashboardService.getSalesSeries(LocalDate.parse("2025-03-01"), LocalDate.parse("2025-03-04"), "day");
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(series.getPoints()).extracting(SalesPointDTO::getBucket)
+                .containsExactly("2025-03-01", "2025-03-02", "2025-03-03", "2025-03-04");
+        assertThat(series.getPoints()).extracting(SalesPointDTO::getOrderCount).containsExactly(1L, 0L, 1L, 0L);
+        assertThat(series.getPoints()).extracting(SalesPointDTO::getRevenue).containsExactly(50.0, 0.0, 100.0, 0.0);
+
+        SalesSeriesDTO monthly = dashboardService.getSalesSeries(LocalDate.parse("2025-02-15"), LocalDate.parse("2025-03-20"), "MONTH");
+        assertThat(monthly.getPoints()).extracting(SalesPointDTO::getBucket).containsExactly("2025-02-01", "2025-03-01");
+        assertThat(monthly.getPoints()).extracting(SalesPointDTO::getUnits).containsExactly(0L, 3L);
+    }
+
+    @Test
+    void topProductsCombineMonthRowsWithDayRowsAtTheEdges() {
+        create(at("2025-01-20T10:00:00-06:00"), line("A", 10.0, 5));   // before range
+        create(at("2025-01-28T10:00:00-06:00"), line("A", 10.0, 1));   // head edge (day rows)
+        create(at("2025-02-14T10:00:00-06:00"), line("B", 20.0, 4));   // whole month (month row)
+        create(at("2025-03-02T10:00:00-06:00"), line("A", 10.0, 2), line("C", 5.0, 1)); // tail edge
+        create(at("2025-03-09T10:00:00-06:00"), line("C", 5.0, 9));    // after range
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ProductSalesDTO> top = dashboardService.getTopProducts(LocalDate.parse("2025-01-25"), LocalDate.parse("2025-03-05"), 10);
+
+        assertThat(top).extracting(ProductSalesDTO::getProductId).containsExactly("B", "A", "C");
+        assertThat(top).extracting(ProductSalesDTO::getUnits).containsExactly(4L, 3L, 1L);
+        assertThat(top).extracting(ProductSalesDTO::getRevenue).containsExactly(80.0, 30.0, 5.0);
+    }
+
+    private Order create(OffsetDateTime createdAt, OrderItem... lines) {
+        List<OrderItem> items = new ArrayList<>(List.of(lines));
+        double total = items.stream().mapToDouble(i -> i.getPrice() * i.getQuantity()).sum();
+        Order order = orderRepository.save(Order.builder()
+                .name("Cliente")
+                .email("cliente@example.com")
+                .phone("55")
+                .items(items)
+                .total(total)
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build());
+        salesRollups.recordCreated(order);
+        return order;
+    }
+
+    private void changeStatus(Order order, Order.OrderStatus to) {
+        Order.OrderStatus from = order.getStatus();
+        order.setStatus(to);
+        orderRepository.save(order);
+        salesRollups.recordStatusChange(order, from, to);
+    }
+
+    private List<SalesRollup> rollups() {
+        entityManager.clear();
+        return rollupRepository.findAll().stream()
+                .sorted(Comparator.comparing((SalesRollup r) -> r.getId().getBucketStart()))
+                .toList();
+    }
+
+    private List<SalesProductRollup> productRollups() {
+        entityManager.clear();
+        return productRollupRepository.findAll();
+    }
+
+    private static OffsetDateTime at(String iso) {
+        return OffsetDateTime.parse(iso);
+    }
+
+    private static OrderItem line(String productId, double price, int qty) {
+        return OrderItem.builder().productId(productId).name("Producto " + productId).price(price).quantity(qty).build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.rafaelcabanillas.sweeties.service;
+
+import com.rafaelcabanillas.sweeties.dto.ThemeDTO;
+import com.rafaelcabanillas.sweeties.model.Theme;
+import com.rafaelcabanillas.sweeties.model.User;
+import com.rafaelcabanillas.sweeties.repository.ThemeRepository;
+import com.rafaelcabanillas.sweeties.repository.UserRepository;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ThemeRegistryTest {
+
+    @Autowired
+    private ThemeRepository themeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ResourceVersions resourceVersions;
+    private ThemeRegistry registry;
+    private Statistics statistics;
+    private Theme candy;
+
+    @BeforeEach
+    void setUp() {
+        themeRepository.save(Theme.builder().name("Light").primaryColor("#a88ff7").build());
+        candy = themeRepository.save(Theme.builder().name("Candy").isDark(false).primaryColor("#ff8fc7").build());
+        userRepository.save(User.builder().name("Ana").username("ana").email("ana@example.com").password("x").build());
+        entityManager.flush();
+        entityManager.clear();
+
+        resourceVersions = new ResourceVersions();
+        registry = new ThemeRegistry(themeRepository, resourceVersions, new SimpleMeterRegistry());
+        registry.seed();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void lookupsAndThemeChangesDoNotQueryThemes() {
+        ThemeServiceImpl themeService = new ThemeServiceImpl(registry, userRepository);
+
+        assertThat(registry.all()).extracting(ThemeDTO::getName).containsExactly("Light", "Candy");
+        assertThat(registry.findByName("Candy")).get().extracting(ThemeDTO::getId).isEqualTo(candy.getId());
+        assertThat(themeService.updateUserTheme("ana", candy.getId()).getThemeId()).isEqualTo(candy.getId());
+        entityManager.flush();
+        entityManager.clear();
+        User reloaded = userRepository.findByUsername("ana").orElseThrow();
+
+        assertThat(reloaded.getThemeId()).isEqualTo(candy.getId());
+        // two user lookups and the update; the themes table is never read
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThatThrownBy(() -> themeService.updateUserTheme("ana", 999L))
+                .hasMessage("Tema no encontrado");
+    }
+
+    @Test
+    void reloadBumpsTheThemesVersionOnlyWhenSomethingChanged() {
+        String etag = resourceVersions.current(ResourceVersions.Resource.THEMES).etag();
+
+        registry.reload();
+        assertThat(resourceVersions.current(ResourceVersions.Resource.THEMES).etag()).isEqualTo(etag);
+
+        Theme theme = themeRepository.findById(candy.getId()).orElseThrow();
+        theme.setPrimaryColor("#ff0099");
+        themeRepository.saveAndFlush(theme);
+        registry.reload();
+
+        assertThat(resourceVersions.current(ResourceVersions.Resource.THEMES).etag()).isNotEqualTo(etag);
+        assertThat(registry.findById(candy.getId())).get().extracting(ThemeDTO::getPrimaryColor).isEqualTo("#ff0099");
+        assertThat(registry.all()).hasSize(2);
+    }
+}
@@ -0,0 +1,79 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void aBurstOfVirtualThreadsNeverExceedsTheLimit() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("cloudinary", 4, Duration.ofSeconds(30), registry);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                calls.add(threads.submit(() -> bulkhead.call(() -> {
+                    peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    Thread.sleep(2);
+                    return active.decrementAndGet();
+                })));
+            }
+            for (Future<Integer> call : calls) {
+                call.get();
+            }
+        }
+
+        assertThat(peak.get()).isEqualTo(4);
+        assertThat(registry.get("sweeties.bulkhead.rejected").tag("name", "cloudinary").counter().count()).isZero();
+    }
+
+    @Test
+    void callersAreRefusedOnceTheTimeoutPasses() {
+        Bulkhead bulkhead = new Bulkhead("cloudinary", 1, Duration.ofMillis(50), registry);
+        assertThat(bulkhead.tryAcquire()).isTrue();
+
+        assertThatThrownBy(() -> bulkhead.call(() -> "never"))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(registry.get("sweeties.bulkhead.rejected").tag("name", "cloudinary").counter().count()).isEqualTo(1);
+        assertThat(registry.get("sweeties.bulkhead.active").tag("name", "cloudinary").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void dataSourcePermitIsHeldUntilTheConnectionCloses() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:bulkhead;DB_CLOSE_DELAY=-1");
+        BulkheadDataSource dataSource = new BulkheadDataSource(h2, new Bulkhead("db", 1, Duration.ofMillis(50), registry));
+
+        Connection first = dataSource.getConnection();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        first.close(); // a second close must not hand out a second permit
+        try (Connection second = dataSource.getConnection()) {
+            assertThat(second.isValid(1)).isTrue();
+        }
+        assertThat(registry.get("sweeties.bulkhead.active").tag("name", "db").gauge().value()).isZero();
+    }
+}
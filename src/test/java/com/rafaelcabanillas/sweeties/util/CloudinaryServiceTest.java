@@ -0,0 +1,150 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the upload pipeline against a local HTTP stub standing in for api.cloudinary.com.
+ */
+class CloudinaryServiceTest {
+
+    private static final Pattern PUBLIC_ID = Pattern.compile("name=\"public_id\"\\r\\n(?:[^\\r\\n]*\\r\\n)*?\\r\\n([^\\r\\n]+)");
+    private static final int PARALLELISM = 3;
+    private static final long UPLOAD_LATENCY_MS = 150;
+
+    private HttpServer stub;
+    private SimpleMeterRegistry registry;
+    private CloudinaryService cloudinaryService;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Queue<String> destroyed = new ConcurrentLinkedQueue<>();
+    private volatile String failingPublicId;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.createContext("/v1_1/demo/image/upload", this::upload);
+        stub.createContext("/v1_1/demo/image/destroy", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            destroyed.add(publicId(body));
+            respond(exchange, 200, "{\"result\":\"ok\"}");
+        });
+        stub.start();
+
+        registry = new SimpleMeterRegistry();
+        cloudinaryService = new CloudinaryService(registry, "demo", "key", "secret",
+                "http://127.0.0.1:" + stub.getAddress().getPort(), PARALLELISM, PARALLELISM * 2, Duration.ofSeconds(10), false);
+    }
+
+    @AfterEach
+    void stopStub() {
+        cloudinaryService.destroy();
+        stub.stop(0);
+    }
+
+    @Test
+    void uploadsRunConcurrentlyUpToTheConfiguredParallelismAndKeepInputOrder() throws IOException {
+        List<CloudinaryService.Upload> uploads = uploads(9);
+
+        long start = System.nanoTime();
+        List<Map<String, Object>> results = cloudinaryService.uploadAll(uploads);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(results).extracting(r -> r.get("public_id"))
+                .containsExactlyElementsOf(uploads.stream().map(u -> "items/" + u.publicId()).toList());
+        assertThat(maxInFlight.get()).isEqualTo(PARALLELISM);
+        // 9 uploads in 3 waves, well under the 9 x latency a sequential loop pays
+        assertThat(elapsedMs).isLessThan(9 * UPLOAD_LATENCY_MS);
+        assertThat(registry.get("sweeties.cloudinary.upload").tag("outcome", "success").timer().count()).isEqualTo(9);
+    }
+
+    @Test
+    void oneFailedUploadRollsBackTheSiblingsThatSucceeded() {
+        List<CloudinaryService.Upload> uploads = uploads(4);
+        failingPublicId = uploads.get(1).publicId();
+
+        assertThatThrownBy(() -> cloudinaryService.uploadAll(uploads)).hasMessageContaining("boom");
+
+        List<String> uploadedOk = uploads.stream()
+                .map(CloudinaryService.Upload::publicId)
+                .filter(id -> !id.equals(failingPublicId))
+                .map(id -> "items/" + id)
+                .toList();
+        // siblings queued behind the failure may be skipped; every one that did upload is deleted
+        assertThat(uploadedOk).containsAll(destroyed);
+        assertThat(destroyed).isNotEmpty();
+        assertThat(registry.get("sweeties.cloudinary.upload").tag("outcome", "failure").timer().count()).isEqualTo(1);
+        assertThat(registry.get("sweeties.cloudinary.upload").tag("outcome", "success").timer().count())
+                .isEqualTo(destroyed.size());
+        assertThat(registry.get("sweeties.cloudinary.destroy").tag("outcome", "success").timer().count())
+                .isEqualTo(destroyed.size());
+    }
+
+    private void upload(HttpExchange exchange) throws IOException {
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.ISO_8859_1);
+            String publicId = publicId(body);
+            Thread.sleep(UPLOAD_LATENCY_MS);
+            if (publicId.equals(failingPublicId)) {
+                respond(exchange, 500, "{\"error\":{\"message\":\"boom\"}}");
+                return;
+            }
+            String fullId = "items/" + publicId;
+            respond(exchange, 200, "{\"public_id\":\"" + fullId + "\",\"secure_url\":\"https://res.example.com/" + fullId + ".png\"}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static String publicId(String multipartBody) {
+        Matcher m = PUBLIC_ID.matcher(multipartBody);
+        if (!m.find()) throw new IllegalStateException("no public_id in request");
+        return m.group(1);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private List<CloudinaryService.Upload> uploads(int count) {
+        List<CloudinaryService.Upload> uploads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            byte[] png = new byte[32 * 1024];
+            MockMultipartFile file = new MockMultipartFile("sprites", "sprite" + i + ".png", "image/png", png);
+            uploads.add(new CloudinaryService.Upload(file, "items", cloudinaryService.buildPublicId("sprite" + i)));
+        }
+        return uploads;
+    }
+}
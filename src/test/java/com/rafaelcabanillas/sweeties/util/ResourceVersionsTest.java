@@ -0,0 +1,108 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import com.rafaelcabanillas.sweeties.util.ResourceVersions.Resource;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceVersionsTest {
+
+    private final ResourceVersions versions = new ResourceVersions();
+    private final AtomicInteger bodiesBuilt = new AtomicInteger();
+    private final Supplier<List<String>> body = () -> {
+        bodiesBuilt.incrementAndGet();
+        return List.of("a", "b");
+    };
+
+    @Test
+    void matchingETagIsAnsweredWithoutBuildingTheBody() {
+        ResponseEntity<List<String>> first = get(Resource.CATALOG, null, null);
+        String etag = first.getHeaders().getETag();
+
+        ResponseEntity<List<String>> again = get(Resource.CATALOG, etag, null);
+
+        assertThat(first.getStatusCode().value()).isEqualTo(200);
+        assertThat(first.getHeaders().getCacheControl()).isEqualTo("no-cache");
+        assertThat(first.getHeaders().getLastModified()).isPositive();
+        assertThat(again.getStatusCode().value()).isEqualTo(304);
+        assertThat(again.getBody()).isNull();
+        assertThat(bodiesBuilt).hasValue(1);
+    }
+
+    @Test
+    void bumpInvalidatesOnlyThatResource() {
+        String catalog = get(Resource.CATALOG, null, null).getHeaders().getETag();
+        String themes = get(Resource.THEMES, null, null).getHeaders().getETag();
+        assertThat(catalog).isNotEqualTo(themes);
+
+        versions.bump(Resource.CATALOG);
+
+        assertThat(get(Resource.CATALOG, catalog, null).getStatusCode().value()).isEqualTo(200);
+        assertThat(get(Resource.THEMES, themes, null).getStatusCode().value()).isEqualTo(304);
+    }
+
+    @Test
+    void lastModifiedMovesForwardEvenForWritesInTheSameSecond() {
+        long before = get(Resource.PUBLIC_SETTINGS, null, null).getHeaders().getLastModified();
+        assertThat(get(Resource.PUBLIC_SETTINGS, null, before).getStatusCode().value()).isEqualTo(304);
+
+        versions.bump(Resource.PUBLIC_SETTINGS);
+        versions.bump(Resource.PUBLIC_SETTINGS);
+
+        ResponseEntity<List<String>> changed = get(Resource.PUBLIC_SETTINGS, null, before);
+        assertThat(changed.getStatusCode().value()).isEqualTo(200);
+        assertThat(changed.getHeaders().getLastModified()).isGreaterThan(before);
+    }
+
+    @Test
+    void validatorsAreWrittenOnceThroughTheMvcStack() throws Exception {
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new CatalogController(versions)).build();
+
+        MockHttpServletResponse ok = mvc.perform(MockMvcRequestBuilders.get("/catalog")).andReturn().getResponse();
+        MockHttpServletResponse notModified = mvc.perform(MockMvcRequestBuilders.get("/catalog")
+                .header("If-None-Match", ok.getHeader("ETag"))).andReturn().getResponse();
+
+        assertThat(ok.getStatus()).isEqualTo(200);
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        for (MockHttpServletResponse response : List.of(ok, notModified)) {
+            assertThat(response.getHeaders("ETag")).hasSize(1);
+            assertThat(response.getHeaders("Last-Modified")).hasSize(1);
+            assertThat(response.getHeaders("Cache-Control")).containsExactly("no-cache");
+        }
+    }
+
+    @RestController
+    static class CatalogController {
+        private final ResourceVersions versions;
+
+        CatalogController(ResourceVersions versions) {
+            this.versions = versions;
+        }
+
+        @GetMapping("/catalog")
+        ResponseEntity<List<String>> catalog(WebRequest request) {
+            return versions.conditionalGet(request, Resource.CATALOG, () -> List.of("a", "b"));
+        }
+    }
+
+    private ResponseEntity<List<String>> get(Resource resource, String ifNoneMatch, Long ifModifiedSince) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        if (ifNoneMatch != null) request.addHeader("If-None-Match", ifNoneMatch);
+        if (ifModifiedSince != null) request.addHeader("If-Modified-Since", ifModifiedSince);
+        return versions.conditionalGet(new ServletWebRequest(request, new MockHttpServletResponse()), resource, body);
+    }
+}
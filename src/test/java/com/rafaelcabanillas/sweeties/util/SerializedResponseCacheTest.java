@@ -0,0 +1,170 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafaelcabanillas.sweeties.util.ResourceVersions.Resource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SerializedResponseCacheTest {
+
+    private final ResourceVersions versions = new ResourceVersions();
+    private final SerializedResponseCache cache =
+            new SerializedResponseCache(versions, new ObjectMapper(), new SimpleMeterRegistry());
+    private final AtomicInteger bodiesBuilt = new AtomicInteger();
+
+    @Test
+    void bodyIsSerializedOncePerVersionAndGzippedOnRequest() throws IOException {
+        ResponseEntity<byte[]> plain = get(null, null);
+        ResponseEntity<byte[]> gzipped = get("br, gzip;q=0.8", null);
+
+        assertThat(new String(plain.getBody())).isEqualTo("[{\"name\":\"item-1\"}]");
+        assertThat(plain.getHeaders().getFirst("Content-Encoding")).isNull();
+        assertThat(gzipped.getHeaders().getFirst("Content-Encoding")).isEqualTo("gzip");
+        assertThat(gunzip(gzipped.getBody())).isEqualTo(plain.getBody());
+        assertThat(gzipped.getHeaders().getVary()).containsExactly("Accept-Encoding");
+        assertThat(bodiesBuilt).hasValue(1);
+
+        versions.bump(Resource.CATALOG);
+
+        assertThat(new String(get(null, null).getBody())).contains("item-2");
+        assertThat(bodiesBuilt).hasValue(2);
+    }
+
+    @Test
+    void eachEncodingHasItsOwnStrongETag() {
+        String plain = get(null, null).getHeaders().getETag();
+        String gzipped = get("gzip", null).getHeaders().getETag();
+
+        assertThat(gzipped).isNotEqualTo(plain).endsWith("-gz\"");
+        assertThat(get("gzip", gzipped).getStatusCode().value()).isEqualTo(304);
+        assertThat(get(null, plain).getStatusCode().value()).isEqualTo(304);
+        // a tag for the other encoding must not validate this one
+        assertThat(get(null, gzipped).getStatusCode().value()).isEqualTo(200);
+    }
+
+    @Test
+    void validatorsAreWrittenOnceThroughTheMvcStack() throws Exception {
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new CatalogController(cache)).build();
+
+        MockHttpServletResponse ok = mvc.perform(MockMvcRequestBuilders.get("/catalog")
+                .header("Accept-Encoding", "gzip")).andReturn().getResponse();
+        MockHttpServletResponse notModified = mvc.perform(MockMvcRequestBuilders.get("/catalog")
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", ok.getHeader("ETag"))).andReturn().getResponse();
+
+        assertThat(ok.getStatus()).isEqualTo(200);
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        for (MockHttpServletResponse response : List.of(ok, notModified)) {
+            assertThat(response.getHeaders("ETag")).hasSize(1);
+            assertThat(response.getHeaders("Last-Modified")).hasSize(1);
+            assertThat(response.getHeaders("Cache-Control")).containsExactly("no-cache");
+            assertThat(response.getHeaders("Vary")).containsExactly("Accept-Encoding");
+        }
+    }
+
+    @RestController
+    static class CatalogController {
+        private final SerializedResponseCache cache;
+
+        CatalogController(SerializedResponseCache cache) {
+            this.cache = cache;
+        }
+
+        @GetMapping("/catalog")
+        ResponseEntity<byte[]> catalog(WebRequest request) {
+            return cache.get(request, Resource.CATALOG, "all", () -> List.of(Map.of("name", "item")));
+        }
+    }
+
+    @Test
+    void concurrentMissesShareOneBuildAndOtherKeysAreNotHeldUp() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger slowBuilds = new AtomicInteger();
+        Supplier<?> slowBody = () -> {
+            slowBuilds.incrementAndGet();
+            building.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of("catálogo");
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ResponseEntity<byte[]>>> waiting = new ArrayList<>();
+            waiting.add(pool.submit(() -> getKey("items", slowBody)));
+            assertThat(building.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 3; i++) {
+                waiting.add(pool.submit(() -> getKey("items", slowBody)));
+            }
+
+            // The slow build holds no lock another key needs
+            assertThat(getKey("items-featured", () -> List.of("destacado")).getStatusCode().value()).isEqualTo(200);
+
+            release.countDown();
+            for (Future<ResponseEntity<byte[]>> response : waiting) {
+                assertThat(new String(response.get(5, TimeUnit.SECONDS).getBody())).isEqualTo("[\"catálogo\"]");
+            }
+            assertThat(slowBuilds).hasValue(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void acceptEncodingParsing() {
+        assertThat(SerializedResponseCache.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(SerializedResponseCache.acceptsGzip("*")).isTrue();
+        assertThat(SerializedResponseCache.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(SerializedResponseCache.acceptsGzip("identity")).isFalse();
+        assertThat(SerializedResponseCache.acceptsGzip(null)).isFalse();
+    }
+
+    private ResponseEntity<byte[]> get(String acceptEncoding, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        if (acceptEncoding != null) request.addHeader("Accept-Encoding", acceptEncoding);
+        if (ifNoneMatch != null) request.addHeader("If-None-Match", ifNoneMatch);
+        return cache.get(new ServletWebRequest(request, new MockHttpServletResponse()), Resource.CATALOG, "items",
+                () -> List.of(Map.of("name", "item-" + bodiesBuilt.incrementAndGet())));
+    }
+
+    private ResponseEntity<byte[]> getKey(String key, Supplier<?> body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        return cache.get(new ServletWebRequest(request, new MockHttpServletResponse()), Resource.CATALOG, key, body);
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafaelcabanillas.sweeties.dto.CreateOrderDTO;
+import com.rafaelcabanillas.sweeties.dto.OrderItemDTO;
+import com.rafaelcabanillas.sweeties.model.Item;
+import com.rafaelcabanillas.sweeties.repository.ItemRepository;
+import com.rafaelcabanillas.sweeties.service.EmailService;
+import com.rafaelcabanillas.sweeties.service.ItemPriceIndex;
+import com.rafaelcabanillas.sweeties.service.ItemServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * The real filter chain, DataSource proxy and {@code sweeties.sql-budget} endpoints from
+ * application.yml, in ENFORCE mode (the test profile): a request that runs one statement
+ * over its endpoint's budget fails instead of answering 2xx.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SqlBudgetEndpointsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SqlBudgetProperties budgets;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemServiceImpl itemService;
+
+    @Autowired
+    private ItemPriceIndex priceIndex;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        assertThat(budgets.mode()).isEqualTo(SqlBudgetProperties.Mode.ENFORCE);
+        // The context (and its database) is shared by the tests in this class
+        if (itemRepository.count() == 0) {
+            for (int i = 0; i < 30; i++) {
+                itemRepository.save(Item.builder()
+                        .name("Producto " + i)
+                        .description("desc")
+                        .price(100.0 + i)
+                        .imageUrl("https://example.com/" + i + ".jpg")
+                        .materials(new ArrayList<>(List.of("algodón")))
+                        .sprites(new ArrayList<>(List.of("s" + i)))
+                        .isFeatured(i % 3 == 0)
+                        .isVisible(true)
+                        .build());
+            }
+            // Rows written behind the services' backs, as the scheduled reloads would pick up
+            priceIndex.reload();
+            itemService.refreshCatalog();
+        }
+        itemRepository.findAll().forEach(item -> productIds.add(item.getId()));
+    }
+
+    @Test
+    void catalogEndpointsStayWithinTheirBudget() throws Exception {
+        int budget = budget("catalog");
+
+        assertWithin(budget, get("/api/items"));
+        assertWithin(budget, get("/api/items/featured"));
+        assertWithin(budget, get("/api/items/page").param("limit", "10").param("material", "algodón"));
+        assertWithin(budget, get("/api/items/" + productIds.get(0)));
+    }
+
+    @Test
+    void checkoutStaysWithinItsBudget() throws Exception {
+        // Never served from memory, so a zero here would mean the DataSource is not being counted
+        assertThat(assertWithin(budget("checkout"), checkout(1))).isPositive();
+        assertWithin(budget("checkout"), checkout(5));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void orderListStaysWithinItsBudget() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(checkout(2));
+        }
+        int budget = budget("order-list");
+
+        assertWithin(budget, get("/api/orders"));
+        assertWithin(budget, get("/api/orders").param("status", "PENDIENTE").param("size", "2"));
+    }
+
+    @Test
+    void requestsTheSecurityChainRejectsStillReportTheirCount() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/orders")).andReturn().getResponse();
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getHeader(SqlBudgetFilter.COUNT_HEADER)).isEqualTo("0");
+    }
+
+    private int assertWithin(int budget, RequestBuilder request) throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+
+        assertThat(response.getStatus()).as(response.getContentAsString()).isBetween(200, 299);
+        int statements = Integer.parseInt(response.getHeader(SqlBudgetFilter.COUNT_HEADER));
+        assertThat(statements).isLessThanOrEqualTo(budget);
+        return statements;
+    }
+
+    private int budget(String endpoint) {
+        return budgets.endpoints().get(endpoint).maxStatements();
+    }
+
+    private RequestBuilder checkout(int lines) throws Exception {
+        List<OrderItemDTO> items = new ArrayList<>();
+        double total = 0;
+        for (int i = 0; i < lines; i++) {
+            Item item = itemRepository.findById(productIds.get(i)).orElseThrow();
+            items.add(new OrderItemDTO(String.valueOf(item.getId()), item.getName(), item.getPrice(), 1));
+            total += item.getPrice();
+        }
+        CreateOrderDTO order = new CreateOrderDTO("Ana", "ana@example.com", "5512345678", null, items, total);
+        return post("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(order));
+    }
+}
@@ -0,0 +1,105 @@
+package com.rafaelcabanillas.sweeties.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqlBudgetFilterTest {
+
+    private static final Map<String, SqlBudgetProperties.Endpoint> ENDPOINTS = Map.of(
+            "order-list", new SqlBudgetProperties.Endpoint("GET", "/api/orders/**", 3));
+
+    private SimpleMeterRegistry registry;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        registry = new SimpleMeterRegistry();
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource = ProxyDataSourceBuilder.create(h2).listener(new SqlStatementTracker()).build();
+        try (Connection c = h2.getConnection()) {
+            c.createStatement().execute("create table orders (id bigint primary key)");
+        }
+    }
+
+    @Test
+    void countAndTimeAreReportedInHeadersAndForTheAccessLog() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/7");
+        MockHttpServletResponse response = run(filter(SqlBudgetProperties.Mode.WARN), request, 2);
+
+        assertThat(response.getHeader(SqlBudgetFilter.COUNT_HEADER)).isEqualTo("2");
+        assertThat(Double.parseDouble(response.getHeader(SqlBudgetFilter.TIME_HEADER))).isNotNegative();
+        assertThat(request.getAttribute(SqlBudgetFilter.COUNT_ATTRIBUTE)).isEqualTo(2);
+        assertThat(registry.find("sweeties.sql.budget.exceeded").counter()).isNull();
+    }
+
+    @Test
+    void overrunIsCountedButAllowedInWarnMode() throws Exception {
+        MockHttpServletResponse response = run(filter(SqlBudgetProperties.Mode.WARN),
+                new MockHttpServletRequest("GET", "/api/orders"), 5);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(SqlBudgetFilter.COUNT_HEADER)).isEqualTo("5");
+        assertThat(registry.get("sweeties.sql.budget.exceeded").tag("endpoint", "order-list").counter().count())
+                .isEqualTo(1);
+        // Unmatched paths fall back to the default budget
+        run(filter(SqlBudgetProperties.Mode.WARN), new MockHttpServletRequest("GET", "/api/items"), 5);
+        assertThat(registry.find("sweeties.sql.budget.exceeded").tag("endpoint", "default").counter()).isNull();
+    }
+
+    @Test
+    void enforceModeFailsTheStatementOverBudget() {
+        SqlBudgetFilter filter = filter(SqlBudgetProperties.Mode.ENFORCE);
+
+        assertThatThrownBy(() -> run(filter, new MockHttpServletRequest("GET", "/api/orders"), 4))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("SQL budget of 3 statements exceeded on order-list")
+                .hasMessageContaining("4x select count(*) from orders");
+        assertThat(registry.get("sweeties.sql.statements").summary().max()).isEqualTo(4);
+    }
+
+    private SqlBudgetFilter filter(SqlBudgetProperties.Mode mode) {
+        return new SqlBudgetFilter(new SqlBudgetProperties(true, mode, 10, true, ENDPOINTS), registry);
+    }
+
+    /** Runs the filter around a handler that issues {@code statements} queries, then writes a body. */
+    private MockHttpServletResponse run(SqlBudgetFilter filter, MockHttpServletRequest request, int statements)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                try (Connection c = dataSource.getConnection();
+                     PreparedStatement ps = c.prepareStatement("select count(*) from orders")) {
+                    for (int i = 0; i < statements; i++) {
+                        ps.executeQuery().close();
+                    }
+                } catch (SQLException e) {
+                    throw new IOException(e);
+                }
+                res.getWriter().write("[]");
+            }
+        }));
+        return response;
+    }
+}